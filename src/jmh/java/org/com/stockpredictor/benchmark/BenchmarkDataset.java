@@ -0,0 +1,75 @@
+package org.com.stockpredictor.benchmark;
+
+import org.com.stockpredictor.dataset.DatasetGenerator;
+import org.com.stockpredictor.dataset.DatasetSpec;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A generated exchange folder tree, laid out like the input of {@link org.com.stockpredictor.Main}: one directory per
+ *  exchange holding one CSV file per stock. The size is set with the rowsPerFile, filesPerExchange and exchanges
+ *  benchmark parameters, and the content is always the same for the same parameters (see {@link DatasetGenerator}).
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+
+    @Param("10000")
+    public int rowsPerFile;
+
+    @Param("10")
+    public int filesPerExchange;
+
+    @Param("2")
+    public int exchanges;
+
+    private Path exchangesFolder;
+    private final List<File> files = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException, InterruptedException {
+        exchangesFolder = Files.createTempDirectory("stock-benchmark");
+        DatasetSpec spec = DatasetSpec.builder()
+                .outputFolder(exchangesFolder)
+                .exchanges(exchanges)
+                .filesPerExchange(filesPerExchange)
+                .rowsPerFile(rowsPerFile)
+                .build();
+        for (Path file : new DatasetGenerator(spec).generate()) {
+            files.add(file.toFile());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(exchangesFolder)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public Path getExchangesFolder() {
+        return exchangesFolder;
+    }
+
+    public List<File> getFiles() {
+        return files;
+    }
+
+    public File getFirstFile() {
+        return files.get(0);
+    }
+}
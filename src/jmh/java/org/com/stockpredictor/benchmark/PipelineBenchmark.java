@@ -0,0 +1,66 @@
+package org.com.stockpredictor.benchmark;
+
+import org.com.stockpredictor.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full run of {@link Main} over the generated dataset, one invocation processing every file. The result
+ *  files are written under target/jmh-output.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    private static final Path OUTPUT_FOLDER = Path.of("target", "jmh-output");
+
+    @Param({"reader", "channel", "mapped"})
+    public String input;
+
+    @Param("1")
+    public int threads;
+
+    @Param("false")
+    public boolean asyncWrite;
+
+    @Setup
+    public void createOutputFolder() throws IOException {
+        Files.createDirectories(OUTPUT_FOLDER);
+    }
+
+    @Benchmark
+    public void main(BenchmarkDataset dataset) {
+        List<String> args = new ArrayList<>(List.of(
+                dataset.getExchangesFolder().toString(),
+                String.valueOf(dataset.filesPerExchange),
+                "--seed=42",
+                "--no-cache",
+                "--input=" + input,
+                "--threads=" + threads,
+                "--output-dir=" + OUTPUT_FOLDER));
+        if (asyncWrite) {
+            args.add("--async-write");
+        }
+        Main.main(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,90 @@
+package org.com.stockpredictor.benchmark;
+
+import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.prediction.PredictionStrategies;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.com.stockpredictor.prediction.StockPredictor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures predicting from a window of the size used by {@link org.com.stockpredictor.Main}, through the list and
+ *  series entry points of {@link StockPredictor}, and scoring a batch of windows with the {@link PredictionStrategy}
+ *  named by the strategy parameter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictorBenchmark {
+
+    @Param("100000")
+    public int batchWindows;
+
+    @Param({"second-highest", "linear-regression"})
+    public String strategy;
+
+    private PredictionStrategy predictionStrategy;
+
+    private List<StockData> stockDataWindow;
+    private StockSeries seriesWindow;
+    private double[] prices;
+    private int[] windowOffsets;
+    private double[] predictions;
+
+    @Setup
+    public void createWindows() {
+        Random random = new Random(42);
+        prices = new double[batchWindows + StockCsvParser.REQUIRED_SIZE];
+        int[] epochDays = new int[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + random.nextInt(10000) / 100d;
+            epochDays[i] = 19000 + i;
+        }
+        seriesWindow = StockSeries.of("BENCH", epochDays, prices).window(0, StockCsvParser.REQUIRED_SIZE);
+        stockDataWindow = seriesWindow.toStockDataList();
+        windowOffsets = new int[batchWindows];
+        for (int i = 0; i < batchWindows; i++) {
+            windowOffsets[i] = i;
+        }
+        predictions = new double[batchWindows * StockPredictor.PREDICTED_POINTS];
+        predictionStrategy = PredictionStrategies.forName(strategy);
+    }
+
+    @Benchmark
+    public List<StockData> predictStockData() {
+        return StockPredictor.predict(stockDataWindow);
+    }
+
+    @Benchmark
+    public StockSeries predictSeries() {
+        return StockPredictor.predict(seriesWindow);
+    }
+
+    /**
+     * Scores all the windows of the batch per invocation; divide the score by the batchWindows parameter to compare
+     *  with the single window benchmarks.
+     */
+    @Benchmark
+    public double[] predictBatch() {
+        predictionStrategy.predictBatch(prices, windowOffsets, StockCsvParser.REQUIRED_SIZE, predictions);
+        return predictions;
+    }
+}
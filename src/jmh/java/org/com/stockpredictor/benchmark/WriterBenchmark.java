@@ -0,0 +1,72 @@
+package org.com.stockpredictor.benchmark;
+
+import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockDataUtils;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.StockCsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a result file, under target/jmh-output.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriterBenchmark {
+
+    private static final Path OUTPUT_FOLDER = Path.of("target", "jmh-output");
+
+    /**
+     * Number of rows per written file, 13 being the size of the results written by {@link org.com.stockpredictor.Main}.
+     */
+    @Param({"13", "10000"})
+    public int rows;
+
+    private List<StockData> results;
+    private StockSeries seriesResults;
+    private StockCsvWriter writer;
+
+    @Setup
+    public void createResults() throws IOException {
+        Files.createDirectories(OUTPUT_FOLDER);
+        Random random = new Random(42);
+        double[] prices = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            prices[i] = 100 + random.nextInt(10000) / 100d;
+        }
+        results = StockDataUtils.createStockDataList("BENCH", LocalDate.of(2000, 1, 1), prices);
+        seriesResults = StockSeries.fromStockData(results);
+        writer = new StockCsvWriter(OUTPUT_FOLDER);
+    }
+
+    @Benchmark
+    public void writeStockData() {
+        writer.write("BENCH.csv", results);
+    }
+
+    @Benchmark
+    public void writeSeries() {
+        writer.write("BENCH.csv", seriesResults);
+    }
+}
@@ -0,0 +1,65 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.benchmark.BenchmarkDataset;
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a single generated file of the dataset with every input mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"READER", "CHANNEL", "MAPPED"})
+    public InputMode inputMode;
+
+    private StockCsvParser parser;
+
+    @Setup
+    public void createParser() {
+        parser = new StockCsvParser(new Random(42), inputMode);
+    }
+
+    @Benchmark
+    public List<StockData> extractAllStockData(BenchmarkDataset dataset) {
+        return parser.extractAllStockData(dataset.getFirstFile());
+    }
+
+    @Benchmark
+    public StockSeries extractStockSeries(BenchmarkDataset dataset) {
+        return parser.extractStockSeries(dataset.getFirstFile());
+    }
+
+    @Benchmark
+    public List<StockData> extractRandomConsecutiveStockData(BenchmarkDataset dataset)
+            throws InsufficientStockDataException {
+        return parser.extractRandomConsecutiveStockData(dataset.getFirstFile());
+    }
+
+    @Benchmark
+    public List<StockData> extractRandomConsecutiveStockDataBySeeking(BenchmarkDataset dataset)
+            throws InsufficientStockDataException {
+        return parser.extractRandomConsecutiveStockDataBySeeking(dataset.getFirstFile());
+    }
+}
@@ -1,93 +1,378 @@
 package org.com.stockpredictor;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import org.com.stockpredictor.arena.ArenaSeries;
+import org.com.stockpredictor.arena.SeriesArena;
+import org.com.stockpredictor.backtest.Backtester;
+import org.com.stockpredictor.backtest.ForecastErrors;
 import org.com.stockpredictor.exception.InsufficientStockDataException;
-import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.metrics.PipelineMetrics;
+import org.com.stockpredictor.metrics.Stage;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.AsyncResultSink;
+import org.com.stockpredictor.parsing.CsvFileSink;
+import org.com.stockpredictor.parsing.OutputFormat;
+import org.com.stockpredictor.parsing.PartitionedResultSink;
+import org.com.stockpredictor.parsing.ResultSink;
+import org.com.stockpredictor.parsing.SeriesCache;
 import org.com.stockpredictor.parsing.StockCsvParser;
 import org.com.stockpredictor.parsing.StockCsvWriter;
-import org.com.stockpredictor.prediction.StockPredictor;
+import org.com.stockpredictor.pipeline.ExchangeWatcher;
+import org.com.stockpredictor.pipeline.FileDiscovery;
+import org.com.stockpredictor.pipeline.FileTask;
+import org.com.stockpredictor.pipeline.ParallelFileProcessor;
+import org.com.stockpredictor.pipeline.StagedPipeline;
+import org.com.stockpredictor.service.PredictionServiceApplication;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.Set;
-import java.util.stream.Stream;
-
-import static com.google.common.collect.ImmutableList.toImmutableList;
-import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Entry point for the Stock Predictor application.
  */
 public class Main {
 
+    private static final int ASYNC_WRITE_QUEUE_CAPACITY = 1024;
+    private static final int ASYNC_WRITE_BATCH_SIZE = 64;
+
     /**
      * Main method that orchestrates the reading of stock data from CSV files, prediction of future stock values,
      *  and writing the results.
      *
      * @param args command line arguments where args[0] is the path to the directory containing exchange folders,
-     *   and args[1] is the maximum number of files to process per exchange.
+     *   and args[1] is the maximum number of files to process per exchange, followed by optional flags
+     *   (see {@link ProgramArguments#parse(String[])}).
      */
     public static void main(String[] args) {
-        if (args.length == 2) {
-            Path exchangesFolder = Path.of(args[0]);
-            int maxNumberOfFilesPerExchange;
-            try {
-                maxNumberOfFilesPerExchange = Integer.parseInt(args[1]);
-            } catch (NumberFormatException e) {
-                System.err.printf("Unable to parse the maximum number of files per exchange program argument: %s", e.getMessage());
-                return;
-            }
-            StockCsvParser stockCsvParser = new StockCsvParser(new Random());
-            List<File> eligibleFiles = findEligibleFiles(exchangesFolder, maxNumberOfFilesPerExchange);
-            for (File file : eligibleFiles) {
-                try {
-                    List<StockData> randomConsecutiveStockData = stockCsvParser.extractRandomConsecutiveStockData(file);
-
-                    List<StockData> predictions = StockPredictor.predict(randomConsecutiveStockData);
-                    List<StockData> results = Stream.concat(randomConsecutiveStockData.stream(), predictions.stream())
-                            .collect(toImmutableList());
-                    StockCsvWriter.write(results, file.getName());
-                } catch (InsufficientStockDataException e) {
-                    System.err.println(e.getMessage());
+        ProgramArguments arguments;
+        try {
+            arguments = ProgramArguments.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        if (arguments.isServe()) {
+            PredictionServiceApplication.start(arguments.getExchangesFolder(), arguments.getMaxFilesPerExchange(),
+                    arguments.getPort(), arguments.getCacheMaxPoints(), arguments.getStrategy().getName());
+            return;
+        }
+        if (arguments.isStandardInput()) {
+            predictStandardInput(arguments);
+            return;
+        }
+        if (arguments.isWatch()) {
+            watch(arguments);
+            return;
+        }
+        long baseSeed = arguments.getSeed() != null ? arguments.getSeed() : new Random().nextLong();
+        SeriesCache seriesCache = arguments.getCacheDirectory() != null
+                ? new SeriesCache(arguments.getCacheDirectory())
+                : null;
+        Map<String, ForecastErrors> exchangeErrors = new ConcurrentSkipListMap<>();
+        PipelineMetrics metrics = new PipelineMetrics();
+        if (arguments.isMetrics()) {
+            metrics.registerMBean();
+        }
+        if (arguments.isArena()) {
+            processArena(arguments, baseSeed, seriesCache, metrics);
+            return;
+        }
+        ScheduledExecutorService summaryScheduler = arguments.getMetricsIntervalSeconds() > 0
+                ? metrics.startPeriodicSummary(arguments.getMetricsIntervalSeconds())
+                : null;
+        long start = System.nanoTime();
+        int processed;
+        int discovered;
+        try (FileDiscovery discovery = new FileDiscovery(arguments.getExchangesFolder(),
+                arguments.getMaxFilesPerExchange(), arguments.getShard(), arguments.getThreads());
+             ResultSink resultSink = createResultSink(arguments)) {
+            if (arguments.getStages() != null) {
+                StagedPipeline pipeline = new StagedPipeline(arguments.getStages(),
+                        file -> createParser(fileRandom(file, baseSeed), arguments, null, metrics),
+                        arguments.getStrategy(), resultSink, metrics);
+                processed = pipeline.process(discovery);
+            } else {
+                try (ParallelFileProcessor processor = new ParallelFileProcessor(
+                        arguments.getThreads(), arguments.getEffectiveMaxFilesInFlight())) {
+                    FileTask task = arguments.isBacktest()
+                            ? file -> backtestFile(file, arguments, seriesCache, metrics, exchangeErrors)
+                            : file -> processFile(file, arguments, seriesCache, metrics, baseSeed, resultSink);
+                    processed = processor.process(discovery, task);
                 }
             }
-        } else {
-            System.err.println("Invalid number of arguments");
+            discovered = discovery.getDiscoveredCount();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while processing files");
+            return;
+        } finally {
+            if (summaryScheduler != null) {
+                summaryScheduler.shutdownNow();
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Processed %d of %d files in %.3f s (%.1f files/sec)\n",
+                processed, discovered, elapsedSeconds, processed / elapsedSeconds);
+        exchangeErrors.forEach((exchange, errors) ->
+                System.out.printf("Backtest of exchange %s: %s\n", exchange, errors));
+        if (arguments.isMetrics()) {
+            System.out.println(metrics.getSummary());
         }
     }
 
     /**
-     * Finds and collects a limited number of eligible CSV files from each exchange directory within the specified folder.
+     * Samples a random window of a CSV file read from the standard input in a single pass, predicts from it and
+     *  writes the results to the standard output.
      *
-     * @param folder the path to the parent directory containing exchange-specific directories
-     * @param maxFilesPerExchange the maximum number of CSV files to include from each exchange directory
-     * @return a list of eligible CSV files to be processed
+     * @param arguments the program arguments
      */
-    private static List<File> findEligibleFiles(Path folder, int maxFilesPerExchange) {
-        ImmutableList.Builder<File> eligibleFiles = ImmutableList.builder();
+    private static void predictStandardInput(ProgramArguments arguments) {
+        Random random = arguments.getSeed() != null ? new Random(arguments.getSeed()) : new Random();
+        StockCsvParser stockCsvParser = new StockCsvParser(random, arguments.getInputMode(), null,
+                arguments.getRowLogging(), null);
         try {
-            Set<Path> exchangeDirectories = Files.walk(folder, 1)
-                    .filter(Files::isDirectory)
-                    .filter(path -> !path.equals(folder))
-                    .collect(toImmutableSet());
-            for (Path exchangeDirectory : exchangeDirectories) {
-                List<File> exchangeFiles = Files.walk(exchangeDirectory, 1)
-                        .filter(path -> !path.equals(exchangeDirectory))
-                        .filter(Files::isRegularFile)
-                        .filter(path -> path.toString().endsWith(".csv"))
-                        .limit(maxFilesPerExchange)
-                        .map(Path::toFile)
-                        .collect(toImmutableList());
-
-                eligibleFiles.addAll(exchangeFiles);
-            }
+            StockSeries window = stockCsvParser.extractRandomConsecutiveStockSeries(System.in, "standard input");
+            new StockCsvWriter(arguments.getOutputDirectory())
+                    .write(System.out, window, arguments.getStrategy().predict(window));
+        } catch (InsufficientStockDataException e) {
+            System.err.println(e.getMessage());
         } catch (IOException e) {
-            System.err.printf("Unexpected I/O exception: %s", e.getMessage());
+            System.err.printf("Unable to write results to the standard output, with error: %s\n", e);
         }
-        return eligibleFiles.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Predicts from the latest window of every file, then keeps watching the exchange folders and predicts again the
+     *  files that change, parsing only their appended rows, until the process is stopped.
+     *
+     * @param arguments the program arguments
+     */
+    private static void watch(ProgramArguments arguments) {
+        try (ResultSink resultSink = createResultSink(arguments);
+             ExchangeWatcher watcher = new ExchangeWatcher(
+                     arguments.getExchangesFolder(), arguments.getMaxFilesPerExchange(), resultSink,
+                     arguments.getStrategy())) {
+            int predicted = watcher.start();
+            System.out.printf("Predicted %d files, watching %s for changes\n", predicted, arguments.getExchangesFolder());
+            watcher.run();
+        } catch (IOException e) {
+            System.err.printf("Unable to watch folder: %s, with error: %s\n", arguments.getExchangesFolder(), e);
+        }
+    }
+
+    /**
+     * Backtests the forecast over every window of a file and adds the errors to the totals of its exchange, which is
+     *  the name of the directory containing the file.
+     *
+     * @param file the file to backtest
+     * @param arguments the program arguments
+     * @param seriesCache the cache of parsed files, or null
+     * @param metrics the metrics of the pipeline
+     * @param exchangeErrors the forecast errors per exchange
+     * @throws InsufficientStockDataException when the file does not hold enough data to make a single forecast
+     */
+    private static void backtestFile(File file, ProgramArguments arguments, SeriesCache seriesCache,
+                                     PipelineMetrics metrics, Map<String, ForecastErrors> exchangeErrors)
+            throws InsufficientStockDataException {
+        long parseStart = System.nanoTime();
+        StockSeries series = createParser(new Random(), arguments, seriesCache, metrics).extractStockSeries(file);
+        metrics.recordSince(Stage.PARSE, parseStart);
+        long predictStart = System.nanoTime();
+        ForecastErrors errors = Backtester.backtest(series, StockCsvParser.REQUIRED_SIZE, arguments.getStrategy());
+        metrics.recordSince(Stage.PREDICT, predictStart);
+        if (errors.getWindows() == 0) {
+            throw new InsufficientStockDataException("Could not find enough stock data");
+        }
+        String exchange = file.getParentFile().getName();
+        System.out.printf("Backtest of %s (%s): %s\n", series.getId(), exchange, errors);
+        addExchangeErrors(exchangeErrors, exchange, errors);
+    }
+
+    private static void addExchangeErrors(Map<String, ForecastErrors> exchangeErrors, String exchange,
+                                          ForecastErrors errors) {
+        exchangeErrors.merge(exchange, errors, (total, fileErrors) -> {
+            ForecastErrors merged = new ForecastErrors();
+            merged.merge(total);
+            merged.merge(fileErrors);
+            return merged;
+        });
+    }
+
+    /**
+     * Loads the whole series of every file into an off-heap arena, then predicts from a random window of every
+     *  series, or backtests every series, reading the arena in place. The window of an uncompressed file is the one
+     *  sampled when processing the file itself; compressed files are sampled in a single pass there, drawing other
+     *  random values.
+     *
+     * @param arguments the program arguments
+     * @param baseSeed the seed from which the random generator of every file is derived
+     * @param seriesCache the cache of parsed files, or null
+     * @param metrics the metrics of the pipeline
+     */
+    private static void processArena(ProgramArguments arguments, long baseSeed, SeriesCache seriesCache,
+                                     PipelineMetrics metrics) {
+        long loadStart = System.nanoTime();
+        SeriesArena arena;
+        try {
+            arena = loadArena(arguments, seriesCache, metrics);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while loading the arena");
+            return;
+        }
+        System.out.printf("Loaded %d series, %d points, %.1f MB off-heap in %.3f s\n", arena.getSeriesCount(),
+                arena.getPointCount(), arena.getReservedBytes() / 1e6, (System.nanoTime() - loadStart) / 1e9);
+        Map<String, ForecastErrors> exchangeErrors = new TreeMap<>();
+        long start = System.nanoTime();
+        int processed = 0;
+        try (ResultSink resultSink = createResultSink(arguments)) {
+            for (ArenaSeries series : arena.getSeries()) {
+                File file = arguments.getExchangesFolder().resolve(series.getKey()).toFile();
+                if (arguments.isBacktest()) {
+                    long predictStart = System.nanoTime();
+                    ForecastErrors errors = Backtester.backtest(series.getPrices(), StockCsvParser.REQUIRED_SIZE,
+                            arguments.getStrategy());
+                    metrics.recordSince(Stage.PREDICT, predictStart);
+                    if (errors.getWindows() == 0) {
+                        System.err.println("Could not find enough stock data");
+                        continue;
+                    }
+                    String exchange = file.getParentFile().getName();
+                    System.out.printf("Backtest of %s (%s): %s\n", series.getId(), exchange, errors);
+                    addExchangeErrors(exchangeErrors, exchange, errors);
+                } else {
+                    if (series.size() <= StockCsvParser.REQUIRED_SIZE) {
+                        System.err.println("Could not find enough stock data");
+                        continue;
+                    }
+                    int from = fileRandom(file, baseSeed).nextInt(series.size() - StockCsvParser.REQUIRED_SIZE);
+                    long predictStart = System.nanoTime();
+                    StockSeries predictions = series.predict(arguments.getStrategy(), from,
+                            StockCsvParser.REQUIRED_SIZE);
+                    metrics.recordSince(Stage.PREDICT, predictStart);
+                    long writeStart = System.nanoTime();
+                    resultSink.write(file, series.copyWindow(from, StockCsvParser.REQUIRED_SIZE), predictions);
+                    metrics.recordSince(Stage.WRITE, writeStart);
+                }
+                processed++;
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Processed %d of %d series in %.3f s (%.1f series/sec)\n",
+                processed, arena.getSeriesCount(), elapsedSeconds, processed / elapsedSeconds);
+        exchangeErrors.forEach((exchange, errors) ->
+                System.out.printf("Backtest of exchange %s: %s\n", exchange, errors));
+        if (arguments.isMetrics()) {
+            System.out.println(metrics.getSummary());
+        }
+    }
+
+    /**
+     * Reads the arena from its snapshot when there is a valid one, otherwise parses all the files into a new arena
+     *  and writes its snapshot, if one is requested.
+     *
+     * @param arguments the program arguments
+     * @param seriesCache the cache of parsed files, or null
+     * @param metrics the metrics of the pipeline
+     * @return the arena holding the series of all the files
+     * @throws InterruptedException when interrupted while parsing the files
+     */
+    private static SeriesArena loadArena(ProgramArguments arguments, SeriesCache seriesCache,
+                                         PipelineMetrics metrics) throws InterruptedException {
+        Path snapshot = arguments.getArenaSnapshot();
+        if (snapshot != null && Files.exists(snapshot)) {
+            try {
+                return SeriesArena.readSnapshot(snapshot);
+            } catch (IOException e) {
+                System.err.printf("Unable to read arena snapshot: %s, with error: %s\n", snapshot, e);
+            }
+        }
+        SeriesArena arena = new SeriesArena();
+        try (FileDiscovery discovery = new FileDiscovery(arguments.getExchangesFolder(),
+                arguments.getMaxFilesPerExchange(), arguments.getShard(), arguments.getThreads())) {
+            arena.addFiles(discovery, file -> createParser(new Random(), arguments, seriesCache, metrics),
+                    arguments.getThreads());
+        }
+        if (snapshot != null) {
+            try {
+                arena.writeSnapshot(snapshot);
+            } catch (IOException e) {
+                System.err.printf("Unable to write arena snapshot: %s, with error: %s\n", snapshot, e);
+            }
+        }
+        return arena;
+    }
+
+    /**
+     * Creates the sink the results are written to, in the requested output format, writing from a dedicated I/O
+     *  thread if requested.
+     *
+     * @param arguments the program arguments
+     * @return the result sink
+     */
+    private static ResultSink createResultSink(ProgramArguments arguments) {
+        ResultSink resultSink = arguments.getOutputFormat() == OutputFormat.FILES
+                ? new CsvFileSink(arguments.getOutputDirectory())
+                : new PartitionedResultSink(arguments.getOutputDirectory(), arguments.getOutputFormat(),
+                        arguments.getMaxPartBytes(), arguments.isOutputIndex());
+        return arguments.isAsyncWrite()
+                ? new AsyncResultSink(resultSink, ASYNC_WRITE_QUEUE_CAPACITY, ASYNC_WRITE_BATCH_SIZE)
+                : resultSink;
+    }
+
+    /**
+     * Samples, predicts and writes the results for a single file. Every file gets its own random generator derived
+     *  from the base seed and the exchange and name of the file, so the sampled window does not depend on the
+     *  processing order.
+     *
+     * @param file the file to process
+     * @param arguments the program arguments
+     * @param seriesCache the cache of parsed files, or null
+     * @param metrics the metrics of the pipeline
+     * @param baseSeed the seed from which the file's random generator is derived
+     * @param resultSink the sink the results are written to
+     * @throws InsufficientStockDataException when the file does not hold enough data to make a prediction
+     */
+    private static void processFile(File file, ProgramArguments arguments, SeriesCache seriesCache,
+                                    PipelineMetrics metrics, long baseSeed, ResultSink resultSink)
+            throws InsufficientStockDataException {
+        StockCsvParser stockCsvParser = createParser(fileRandom(file, baseSeed), arguments, seriesCache, metrics);
+        long parseStart = System.nanoTime();
+        StockSeries randomConsecutiveStockData = arguments.isSeekSampling()
+                ? StockSeries.fromStockData(stockCsvParser.extractRandomConsecutiveStockDataBySeeking(file))
+                : stockCsvParser.extractRandomConsecutiveStockSeries(file);
+        metrics.recordSince(Stage.PARSE, parseStart);
+
+        long predictStart = System.nanoTime();
+        StockSeries predictions = arguments.getStrategy().predict(randomConsecutiveStockData);
+        metrics.recordSince(Stage.PREDICT, predictStart);
+        long writeStart = System.nanoTime();
+        resultSink.write(file, randomConsecutiveStockData, predictions);
+        metrics.recordSince(Stage.WRITE, writeStart);
+    }
+
+    /**
+     * Derives the random generator of a file from the base seed and the exchange and name of the file, so that the
+     *  same seed samples the same windows however the exchanges folder is written.
+     */
+    private static Random fileRandom(File file, long baseSeed) {
+        return new Random(Hashing.murmur3_128().newHasher()
+                .putLong(baseSeed)
+                .putString(SeriesArena.key(file), StandardCharsets.UTF_8)
+                .hash()
+                .asLong());
+    }
+
+    private static StockCsvParser createParser(Random random, ProgramArguments arguments, SeriesCache seriesCache,
+                                               PipelineMetrics metrics) {
+        return new StockCsvParser(random, arguments.getInputMode(), seriesCache, arguments.getRowLogging(), metrics);
+    }
+}
@@ -0,0 +1,350 @@
+package org.com.stockpredictor;
+
+import lombok.Builder;
+import lombok.Value;
+import org.com.stockpredictor.parsing.InputMode;
+import org.com.stockpredictor.parsing.OutputFormat;
+import org.com.stockpredictor.parsing.RowLogging;
+import org.com.stockpredictor.pipeline.Shard;
+import org.com.stockpredictor.pipeline.StageSettings;
+import org.com.stockpredictor.prediction.PredictionStrategies;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Holds the parsed command line arguments of the application.
+ */
+@Value
+@Builder
+public class ProgramArguments {
+
+    /**
+     * Exchanges folder argument standing for a single CSV file read from the standard input.
+     */
+    public static final String STANDARD_INPUT = "-";
+
+    /**
+     * Path to the directory containing the exchange folders.
+     */
+    Path exchangesFolder;
+
+    /**
+     * Whether a single CSV file is read from the standard input, with its results written to the standard output,
+     *  instead of processing an exchanges folder.
+     */
+    boolean standardInput;
+
+    /**
+     * Maximum number of files to process per exchange.
+     */
+    int maxFilesPerExchange;
+
+    /**
+     * Whether the random window is sampled by seeking into the file instead of parsing it whole.
+     */
+    boolean seekSampling;
+
+    /**
+     * How the CSV files are read.
+     */
+    @Builder.Default
+    InputMode inputMode = InputMode.READER;
+
+    /**
+     * The strategy predicting the next prices of a window.
+     */
+    @Builder.Default
+    PredictionStrategy strategy = PredictionStrategies.getDefault();
+
+    /**
+     * Whether every window of every file is backtested instead of predicting from a single random window.
+     */
+    boolean backtest;
+
+    /**
+     * Whether the whole series of all the files are loaded into an off-heap arena first, then predicted from or
+     *  backtested in place.
+     */
+    boolean arena;
+
+    /**
+     * Snapshot file the arena is read from when it exists, and written to after parsing the files otherwise, or null.
+     */
+    Path arenaSnapshot;
+
+    /**
+     * Directory of the cache of parsed files, or null to always parse the CSV files. The cache is only used when a
+     *  directory is given, since its entries are trusted as the parsed content of their source files.
+     */
+    Path cacheDirectory;
+
+    /**
+     * Directory the result files are written to.
+     */
+    @Builder.Default
+    Path outputDirectory = Path.of(".");
+
+    /**
+     * How the results are written to the output directory.
+     */
+    @Builder.Default
+    OutputFormat outputFormat = OutputFormat.FILES;
+
+    /**
+     * Size in bytes past which a new part file is started, with a partitioned output format.
+     */
+    @Builder.Default
+    long maxPartBytes = 256L * 1024 * 1024;
+
+    /**
+     * Whether an index from ticker to record is written for every exchange, with a partitioned output format.
+     */
+    boolean outputIndex;
+
+    /**
+     * Whether results are written by a dedicated I/O thread instead of the threads making the predictions.
+     */
+    boolean asyncWrite;
+
+    /**
+     * Number of worker threads processing files concurrently.
+     */
+    @Builder.Default
+    int threads = 1;
+
+    /**
+     * Maximum number of files being processed at the same time, 0 meaning twice the number of threads.
+     */
+    int maxFilesInFlight;
+
+    /**
+     * Sizing of the staged pipeline the files are processed through, or null to process every file on a single
+     *  thread from reading to writing.
+     */
+    StageSettings stages;
+
+    /**
+     * Seed from which the random generator of each file is derived, null for a random seed.
+     */
+    Long seed;
+
+    /**
+     * The part of the files this process handles when a run is split over several processes.
+     */
+    @Builder.Default
+    Shard shard = Shard.ALL;
+
+    /**
+     * How the rows rejected while parsing are logged.
+     */
+    @Builder.Default
+    RowLogging rowLogging = RowLogging.SAMPLED;
+
+    /**
+     * Whether the pipeline metrics are registered over JMX and summarized once all files are processed.
+     */
+    boolean metrics;
+
+    /**
+     * Interval in seconds at which the pipeline metrics are summarized while processing, 0 for none.
+     */
+    int metricsIntervalSeconds;
+
+    /**
+     * Whether the exchange folders are watched after the first run, predicting again the files rows are appended to.
+     */
+    boolean watch;
+
+    /**
+     * Whether the application runs as a long-running HTTP prediction service instead of a one-shot batch.
+     */
+    boolean serve;
+
+    /**
+     * HTTP port of the prediction service.
+     */
+    @Builder.Default
+    int port = 8080;
+
+    /**
+     * Maximum number of data points the prediction service keeps in memory.
+     */
+    @Builder.Default
+    long cacheMaxPoints = 10_000_000;
+
+    /**
+     * Parses the command line arguments. The first two arguments are positional, the rest are optional flags. When
+     *  the first argument is {@value #STANDARD_INPUT}, the maximum number of files per exchange is not given.
+     *
+     * @param args the command line arguments
+     * @return the parsed arguments
+     * @throws IllegalArgumentException when the arguments are missing or cannot be parsed
+     */
+    public static ProgramArguments parse(String[] args) {
+        boolean standardInput = args.length > 0 && args[0].equals(STANDARD_INPUT);
+        if (args.length < (standardInput ? 1 : 2)) {
+            throw new IllegalArgumentException("Invalid number of arguments");
+        }
+        ProgramArgumentsBuilder builder = ProgramArguments.builder()
+                .exchangesFolder(Path.of(args[0]))
+                .standardInput(standardInput);
+        StageSettings.StageSettingsBuilder stages = StageSettings.builder();
+        boolean staged = false;
+        int firstOption = 1;
+        if (!standardInput) {
+            try {
+                builder.maxFilesPerExchange(Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Unable to parse the maximum number of files per exchange program argument: " + e.getMessage());
+            }
+            firstOption = 2;
+        }
+        for (int i = firstOption; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--seek")) {
+                builder.seekSampling(true);
+            } else if (option.startsWith("--strategy=")) {
+                builder.strategy(PredictionStrategies.forName(option.substring("--strategy=".length())));
+            } else if (option.equals("--backtest")) {
+                builder.backtest(true);
+            } else if (option.equals("--arena")) {
+                builder.arena(true);
+            } else if (option.startsWith("--arena-snapshot=")) {
+                builder.arena(true).arenaSnapshot(Path.of(option.substring("--arena-snapshot=".length())));
+            } else if (option.startsWith("--cache-dir=")) {
+                builder.cacheDirectory(Path.of(option.substring("--cache-dir=".length())));
+            } else if (option.equals("--no-cache")) {
+                builder.cacheDirectory(null);
+            } else if (option.startsWith("--output-dir=")) {
+                builder.outputDirectory(Path.of(option.substring("--output-dir=".length())));
+            } else if (option.startsWith("--output-format=")) {
+                builder.outputFormat(parseOutputFormat(option));
+            } else if (option.startsWith("--max-part-mb=")) {
+                builder.maxPartBytes(parsePositiveInt(option, "--max-part-mb=") * 1024L * 1024);
+            } else if (option.equals("--output-index")) {
+                builder.outputIndex(true);
+            } else if (option.equals("--async-write")) {
+                builder.asyncWrite(true);
+            } else if (option.startsWith("--input=")) {
+                builder.inputMode(parseInputMode(option));
+            } else if (option.startsWith("--threads=")) {
+                builder.threads(parsePositiveInt(option, "--threads="));
+            } else if (option.startsWith("--max-in-flight=")) {
+                builder.maxFilesInFlight(parsePositiveInt(option, "--max-in-flight="));
+            } else if (option.equals("--staged")) {
+                staged = true;
+            } else if (option.startsWith("--read-threads=")) {
+                staged = true;
+                stages.readThreads(parsePositiveInt(option, "--read-threads="));
+            } else if (option.startsWith("--parse-threads=")) {
+                staged = true;
+                stages.parseThreads(parsePositiveInt(option, "--parse-threads="));
+            } else if (option.startsWith("--predict-threads=")) {
+                staged = true;
+                stages.predictThreads(parsePositiveInt(option, "--predict-threads="));
+            } else if (option.startsWith("--write-threads=")) {
+                staged = true;
+                stages.writeThreads(parsePositiveInt(option, "--write-threads="));
+            } else if (option.startsWith("--queue-capacity=")) {
+                staged = true;
+                stages.queueCapacity(parsePositiveInt(option, "--queue-capacity="));
+            } else if (option.startsWith("--batch-size=")) {
+                staged = true;
+                stages.batchSize(parsePositiveInt(option, "--batch-size="));
+            } else if (option.startsWith("--seed=")) {
+                builder.seed(parseLong(option, "--seed="));
+            } else if (option.startsWith("--shard=")) {
+                builder.shard(Shard.parse(option.substring("--shard=".length())));
+            } else if (option.equals("--shard") && i + 1 < args.length) {
+                builder.shard(Shard.parse(args[++i]));
+            } else if (option.startsWith("--log-rows=")) {
+                builder.rowLogging(parseRowLogging(option));
+            } else if (option.equals("--metrics")) {
+                builder.metrics(true);
+            } else if (option.startsWith("--metrics-interval=")) {
+                builder.metrics(true).metricsIntervalSeconds(parsePositiveInt(option, "--metrics-interval="));
+            } else if (option.equals("--watch")) {
+                builder.watch(true);
+            } else if (option.equals("--serve")) {
+                builder.serve(true);
+            } else if (option.startsWith("--port=")) {
+                builder.port(parsePositiveInt(option, "--port="));
+            } else if (option.startsWith("--cache-max-points=")) {
+                builder.cacheMaxPoints(parsePositiveInt(option, "--cache-max-points="));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (staged) {
+            builder.stages(stages.build());
+        }
+        ProgramArguments arguments = builder.build();
+        if (arguments.getStages() != null && (arguments.isSeekSampling() || arguments.isBacktest())) {
+            throw new IllegalArgumentException("The staged pipeline cannot be combined with --seek or --backtest");
+        }
+        if (arguments.isWatch() && arguments.getOutputFormat() != OutputFormat.FILES) {
+            throw new IllegalArgumentException("The watch mode cannot be combined with --output-format=csv or binary");
+        }
+        if (arguments.isArena() && (arguments.getStages() != null || arguments.isSeekSampling())) {
+            throw new IllegalArgumentException("The arena cannot be combined with the staged pipeline or --seek");
+        }
+        return arguments;
+    }
+
+    /**
+     * Returns the effective maximum number of files being processed at the same time.
+     *
+     * @return the bound on files in flight
+     */
+    public int getEffectiveMaxFilesInFlight() {
+        return maxFilesInFlight > 0 ? maxFilesInFlight : threads * 2;
+    }
+
+    private static int parsePositiveInt(String option, String prefix) {
+        int value;
+        try {
+            value = Integer.parseInt(option.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to parse option " + option + ": " + e.getMessage());
+        }
+        if (value <= 0) {
+            throw new IllegalArgumentException("Option " + option + " must be positive");
+        }
+        return value;
+    }
+
+    private static InputMode parseInputMode(String option) {
+        try {
+            return InputMode.valueOf(option.substring("--input=".length()).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown input mode in option " + option);
+        }
+    }
+
+    private static OutputFormat parseOutputFormat(String option) {
+        try {
+            return OutputFormat.valueOf(option.substring("--output-format=".length()).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown output format in option " + option);
+        }
+    }
+
+    private static RowLogging parseRowLogging(String option) {
+        try {
+            return RowLogging.valueOf(option.substring("--log-rows=".length()).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown row logging in option " + option);
+        }
+    }
+
+    private static long parseLong(String option, String prefix) {
+        try {
+            return Long.parseLong(option.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to parse option " + option + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.com.stockpredictor.arena;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.com.stockpredictor.prediction.StockPredictor;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A read-only view of the series of one ticker stored in a {@link SeriesArena}: its epoch days and prices are read
+ *  in place from off-heap memory. Views are cheap, hold no copy of the data and can be shared between threads. A view
+ *  keeps the slab holding its series alive, so it stays usable after its arena is no longer referenced.
+ */
+public final class ArenaSeries {
+
+    private final String key;
+    private final String id;
+    private final ByteBuffer region;
+    private final IntBuffer epochDays;
+    private final DoubleBuffer prices;
+
+    /**
+     * Creates the view of a series stored in a region of the arena, holding its prices followed by its epoch days in
+     *  the byte order of the arena.
+     */
+    ArenaSeries(String key, String id, ByteBuffer region, int size) {
+        this.key = key;
+        this.id = id;
+        this.region = region.asReadOnlyBuffer();
+        this.prices = region.duplicate().limit(size * Double.BYTES).order(SeriesArena.BYTE_ORDER).asDoubleBuffer()
+                .asReadOnlyBuffer();
+        this.epochDays = region.duplicate().position(size * Double.BYTES).slice().order(SeriesArena.BYTE_ORDER)
+                .asIntBuffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the key the series is indexed by in its arena: the exchange and the file name, as
+     *  "&lt;exchange&gt;/&lt;file name&gt;".
+     *
+     * @return the key of the series
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int size() {
+        return prices.limit();
+    }
+
+    public int epochDayAt(int index) {
+        return epochDays.get(index);
+    }
+
+    public double priceAt(int index) {
+        return prices.get(index);
+    }
+
+    /**
+     * Returns the epoch days of the series, as a read-only buffer over the arena memory.
+     *
+     * @return a new read-only buffer from the first to the last epoch day
+     */
+    public IntBuffer getEpochDays() {
+        return epochDays.duplicate();
+    }
+
+    /**
+     * Returns the prices of the series, as a read-only buffer over the arena memory.
+     *
+     * @return a new read-only buffer from the first to the last price
+     */
+    public DoubleBuffer getPrices() {
+        return prices.duplicate();
+    }
+
+    /**
+     * Predicts the next prices of a window of the series, reading the window in place.
+     *
+     * @param strategy the strategy making the prediction
+     * @param from the index of the first point of the window
+     * @param windowLength the number of points in the window, at least one
+     * @return a series of the predicted data points, on the days following the last point of the window
+     */
+    public StockSeries predict(PredictionStrategy strategy, int from, int windowLength) {
+        double[] predictions = new double[StockPredictor.PREDICTED_POINTS];
+        strategy.predict(prices, from, windowLength, predictions, 0);
+        int lastEpochDay = epochDays.get(from + windowLength - 1);
+        int[] predictedEpochDays = new int[StockPredictor.PREDICTED_POINTS];
+        for (int step = 0; step < predictedEpochDays.length; step++) {
+            predictedEpochDays[step] = lastEpochDay + step + 1;
+        }
+        return StockSeries.of(id, predictedEpochDays, predictions);
+    }
+
+    /**
+     * Copies a window of the series to the heap, for example to write it out next to its predictions.
+     *
+     * @param from the index of the first point of the window
+     * @param windowLength the number of points in the window
+     * @return a series holding a copy of the window
+     */
+    public StockSeries copyWindow(int from, int windowLength) {
+        int[] windowEpochDays = new int[windowLength];
+        double[] windowPrices = new double[windowLength];
+        epochDays.get(from, windowEpochDays);
+        prices.get(from, windowPrices);
+        return StockSeries.of(id, windowEpochDays, windowPrices);
+    }
+
+    /**
+     * Returns the region of the arena holding the series, as stored in a snapshot.
+     */
+    ByteBuffer region() {
+        return region.duplicate();
+    }
+
+    @Override
+    public String toString() {
+        return "ArenaSeries{key=" + key + ", id=" + id + ", size=" + size() + "}";
+    }
+}
@@ -0,0 +1,371 @@
+package org.com.stockpredictor.arena;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.pipeline.ParallelFileProcessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Holds the whole series of many tickers in off-heap memory, so that a whole market can stay resident and be
+ *  predicted from or backtested repeatedly without touching the disk, while the heap only holds the index. The prices
+ *  and the epoch days of every series are stored contiguously in large direct buffers, the slabs, in the native byte
+ *  order so that they are read in place through read-only {@link ArenaSeries} views without swapping bytes. Series are indexed by "&lt;exchange&gt;/&lt;file name&gt;".
+ * <p>
+ * An arena is filled by parsing CSV files or by reading a snapshot written by {@link #writeSnapshot(Path)}, which
+ *  is much faster than parsing the files again. Snapshot layout, big-endian: magic, version, byte order of the points
+ *  (0 for big-endian, 1 for little-endian), series count, length of the entries, then for every series its key
+ *  length and UTF-8 bytes, id length and UTF-8 bytes and point count, then the prices and epoch days of every series
+ *  in the same order and in the byte order of the snapshot, and a CRC32C of everything before it. The points are
+ *  written in the byte order of the arena as is, and only swapped when read on a machine of the other byte order.
+ * <p>
+ * Adding series is thread-safe and views can be read concurrently. The memory of the arena is released once neither
+ *  the arena nor any of its views is referenced any more.
+ */
+public class SeriesArena {
+
+    /**
+     * Default size of the slabs, a series larger than a slab getting a slab of its own.
+     */
+    public static final int DEFAULT_SLAB_BYTES = 64 << 20;
+
+    /**
+     * Byte order of the points stored in the slabs.
+     */
+    static final ByteOrder BYTE_ORDER = ByteOrder.nativeOrder();
+
+    private static final int MAGIC = 0x53504131;
+    private static final int VERSION = 2;
+    private static final int HEADER_LENGTH = 4 + 4 + 4 + 4 + 4;
+    private static final int POINT_BYTES = Double.BYTES + Integer.BYTES;
+    // key length, id length and point count of an entry with an empty key and id
+    private static final int MIN_ENTRY_LENGTH = 4 + 4 + 4;
+
+    private final int slabBytes;
+    private final ConcurrentNavigableMap<String, ArenaSeries> index = new ConcurrentSkipListMap<>();
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private ByteBuffer slab;
+    private long pointCount;
+
+    /**
+     * Creates an empty arena with slabs of the default size.
+     */
+    public SeriesArena() {
+        this(DEFAULT_SLAB_BYTES);
+    }
+
+    /**
+     * Creates an empty arena.
+     *
+     * @param slabBytes the size of the direct buffers the series are stored in
+     */
+    public SeriesArena(int slabBytes) {
+        if (slabBytes <= 0) {
+            throw new IllegalArgumentException("The slab size must be positive");
+        }
+        this.slabBytes = slabBytes;
+    }
+
+    /**
+     * Reads an arena from a snapshot file, straight into off-heap memory.
+     *
+     * @param snapshot the snapshot file
+     * @return the arena holding the series of the snapshot
+     * @throws IOException when the file cannot be read, or is not a valid snapshot
+     */
+    public static SeriesArena readSnapshot(Path snapshot) throws IOException {
+        SeriesArena arena = new SeriesArena();
+        arena.addSnapshot(snapshot);
+        return arena;
+    }
+
+    /**
+     * Returns the key a CSV file is indexed by.
+     *
+     * @param file the CSV file, in its exchange folder
+     * @return the name of the exchange folder and of the file, as "&lt;exchange&gt;/&lt;file name&gt;"
+     */
+    public static String key(File file) {
+        File exchange = file.getParentFile();
+        return exchange != null ? exchange.getName() + "/" + file.getName() : file.getName();
+    }
+
+    /**
+     * Copies a series to the arena, replacing any series of the same key. The memory of a replaced series is only
+     *  released with the whole arena.
+     *
+     * @param key the key the series is indexed by
+     * @param series the series to copy
+     * @return the view of the stored series
+     */
+    public synchronized ArenaSeries add(String key, StockSeries series) {
+        int size = series.size();
+        ByteBuffer region = allocate(size);
+        region.duplicate().order(BYTE_ORDER).asDoubleBuffer().put(series.getPrices(), series.getOffset(), size);
+        region.duplicate().position(size * Double.BYTES).slice().order(BYTE_ORDER).asIntBuffer()
+                .put(series.getEpochDays(), series.getOffset(), size);
+        return register(key, series.getId(), region, size);
+    }
+
+    /**
+     * Parses CSV files and adds their whole series, keyed by {@link #key(File)}, using several threads. Only the
+     *  series being parsed are on the heap at any time.
+     *
+     * @param files the CSV files
+     * @param parsers creates the parser of every file
+     * @param threads the number of threads parsing the files
+     * @return the number of files added
+     * @throws InterruptedException when interrupted while waiting for the files to be parsed
+     */
+    public int addFiles(Iterable<File> files, Function<File, StockCsvParser> parsers, int threads)
+            throws InterruptedException {
+        try (ParallelFileProcessor processor = new ParallelFileProcessor(threads, threads * 2)) {
+            return processor.process(files, file -> add(key(file), parsers.apply(file).extractStockSeries(file)));
+        }
+    }
+
+    /**
+     * Reads the series of a snapshot file straight into off-heap memory and adds them, replacing any series of the
+     *  same keys.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException when the file cannot be read, or is not a valid snapshot
+     */
+    public synchronized void addSnapshot(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer header = readFully(channel, ByteBuffer.allocate(HEADER_LENGTH), crc);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an arena snapshot: " + snapshot);
+            }
+            int byteOrder = header.getInt();
+            int count = header.getInt();
+            int entriesLength = header.getInt();
+            if ((byteOrder != 0 && byteOrder != 1) || count < 0 || entriesLength < 0 || entriesLength > channel.size() - HEADER_LENGTH - Long.BYTES
+                    || count > entriesLength / MIN_ENTRY_LENGTH) {
+                throw new IOException("Corrupted arena snapshot: " + snapshot);
+            }
+            ByteBuffer entries = readFully(channel, ByteBuffer.allocate(entriesLength), crc);
+            String[] keys = new String[count];
+            String[] ids = new String[count];
+            int[] sizes = new int[count];
+            long dataLength = 0;
+            try {
+                for (int i = 0; i < count; i++) {
+                    keys[i] = readString(entries);
+                    ids[i] = readString(entries);
+                    sizes[i] = entries.getInt();
+                    if (sizes[i] < 0) {
+                        throw new IOException("Corrupted arena snapshot: " + snapshot);
+                    }
+                    dataLength += (long) sizes[i] * POINT_BYTES;
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupted arena snapshot: " + snapshot, e);
+            }
+            if (dataLength != channel.size() - channel.position() - Long.BYTES) {
+                throw new IOException("Corrupted arena snapshot: " + snapshot);
+            }
+            ByteBuffer[] regions = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                regions[i] = allocate(sizes[i]);
+                readFully(channel, regions[i].duplicate(), crc);
+            }
+            ByteOrder snapshotOrder = byteOrder == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            if (readFully(channel, ByteBuffer.allocate(Long.BYTES), null).getLong() != crc.getValue()) {
+                throw new IOException("Corrupted arena snapshot: " + snapshot);
+            }
+            for (int i = 0; i < count; i++) {
+                if (snapshotOrder != BYTE_ORDER) {
+                    swapBytes(regions[i], sizes[i], snapshotOrder);
+                }
+                register(keys[i], ids[i], regions[i], sizes[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes all the series of the arena to a snapshot file, replacing it atomically. The series are written
+     *  straight from off-heap memory.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException when the file cannot be written
+     */
+    public synchronized void writeSnapshot(Path snapshot) throws IOException {
+        Collection<ArenaSeries> series = index.values();
+        List<byte[]> strings = new ArrayList<>(series.size() * 2);
+        int entriesLength = 0;
+        for (ArenaSeries entry : series) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] id = entry.getId().getBytes(StandardCharsets.UTF_8);
+            strings.add(key);
+            strings.add(id);
+            entriesLength += 4 + key.length + 4 + id.length + 4;
+        }
+        ByteBuffer entries = ByteBuffer.allocate(HEADER_LENGTH + entriesLength)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(BYTE_ORDER == ByteOrder.BIG_ENDIAN ? 0 : 1)
+                .putInt(series.size())
+                .putInt(entriesLength);
+        int string = 0;
+        for (ArenaSeries entry : series) {
+            byte[] key = strings.get(string++);
+            byte[] id = strings.get(string++);
+            entries.putInt(key.length).put(key).putInt(id.length).put(id).putInt(entry.size());
+        }
+        Path directory = snapshot.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporarySnapshot = Files.createTempFile(directory, "arena", ".tmp");
+        try {
+            CRC32C crc = new CRC32C();
+            try (FileChannel channel = FileChannel.open(temporarySnapshot, StandardOpenOption.WRITE)) {
+                writeFully(channel, entries.flip(), crc);
+                for (ArenaSeries entry : series) {
+                    writeFully(channel, entry.region(), crc);
+                }
+                writeFully(channel, ByteBuffer.allocate(Long.BYTES).putLong(0, crc.getValue()), null);
+            }
+            Files.move(temporarySnapshot, snapshot,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporarySnapshot);
+        }
+    }
+
+    /**
+     * Finds a series by key.
+     *
+     * @param key the key of the series, "&lt;exchange&gt;/&lt;file name&gt;"
+     * @return the view of the series, or empty when the arena does not hold it
+     */
+    public Optional<ArenaSeries> find(String key) {
+        return Optional.ofNullable(index.get(key));
+    }
+
+    /**
+     * Returns all the series of the arena, ordered by key.
+     *
+     * @return the views of the series
+     */
+    public Collection<ArenaSeries> getSeries() {
+        return index.values();
+    }
+
+    public int getSeriesCount() {
+        return index.size();
+    }
+
+    public synchronized long getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Returns the off-heap memory reserved by the arena, including the free end of its slabs and the series that
+     *  were replaced.
+     *
+     * @return the total size of the slabs in bytes
+     */
+    public synchronized long getReservedBytes() {
+        long reserved = 0;
+        for (ByteBuffer reservedSlab : slabs) {
+            reserved += reservedSlab.capacity();
+        }
+        return reserved;
+    }
+
+    /**
+     * Reserves the region of a series of the given number of points, in the current slab when it has room left,
+     *  otherwise in a new slab. Regions start on a multiple of 8 bytes.
+     */
+    private ByteBuffer allocate(int size) {
+        long length = (long) size * POINT_BYTES;
+        if (length > Integer.MAX_VALUE - Long.BYTES) {
+            throw new IllegalArgumentException("Series too large for the arena: " + size + " points");
+        }
+        int start = slab != null ? (slab.position() + Long.BYTES - 1) & -Long.BYTES : 0;
+        if (slab == null || length > slab.capacity() - start) {
+            slab = ByteBuffer.allocateDirect(Math.max(slabBytes, (int) length)).order(BYTE_ORDER);
+            slabs.add(slab);
+            start = 0;
+        }
+        ByteBuffer region = slab.duplicate().position(start).limit(start + (int) length).slice();
+        slab.position(start + (int) length);
+        return region;
+    }
+
+    private ArenaSeries register(String key, String id, ByteBuffer region, int size) {
+        ArenaSeries series = new ArenaSeries(key, id, region, size);
+        ArenaSeries replaced = index.put(key, series);
+        pointCount += size - (replaced != null ? replaced.size() : 0);
+        return series;
+    }
+
+    /**
+     * Converts the points of a region read from a snapshot of the other byte order to the byte order of the arena,
+     *  in place.
+     */
+    private static void swapBytes(ByteBuffer region, int size, ByteOrder snapshotOrder) {
+        DoubleBuffer snapshotPrices = region.duplicate().order(snapshotOrder).asDoubleBuffer();
+        DoubleBuffer prices = region.duplicate().order(BYTE_ORDER).asDoubleBuffer();
+        ByteBuffer epochDaysRegion = region.duplicate().position(size * Double.BYTES).slice();
+        IntBuffer snapshotEpochDays = epochDaysRegion.duplicate().order(snapshotOrder).asIntBuffer();
+        IntBuffer epochDays = epochDaysRegion.duplicate().order(BYTE_ORDER).asIntBuffer();
+        for (int i = 0; i < size; i++) {
+            prices.put(i, snapshotPrices.get(i));
+            epochDays.put(i, snapshotEpochDays.get(i));
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated arena snapshot");
+            }
+        }
+        buffer.flip();
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
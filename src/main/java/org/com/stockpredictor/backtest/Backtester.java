@@ -0,0 +1,148 @@
+package org.com.stockpredictor.backtest;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.com.stockpredictor.prediction.SecondHighestStrategy;
+import org.com.stockpredictor.prediction.SlidingSecondHighest;
+import org.com.stockpredictor.prediction.StockPredictor;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Validates the {@link StockPredictor} forecast against history: the forecast is made for every window of a series
+ *  and compared with the prices that actually followed the window.
+ */
+public class Backtester {
+
+    /**
+     * Slides a window over the whole series, forecasts the next 3 prices of every window that is followed by at least
+     *  3 actual prices, and accumulates the errors of the forecasts. The first predicted price is maintained
+     *  incrementally as the window slides.
+     *
+     * @param series the series to backtest
+     * @param windowLength the number of prices a forecast is made from
+     * @return the accumulated forecast errors
+     */
+    public static ForecastErrors backtest(StockSeries series, int windowLength) {
+        return backtest(series, windowLength, new SecondHighestStrategy());
+    }
+
+    /**
+     * Slides a window over the whole series, forecasts the next 3 prices of every window that is followed by at least
+     *  3 actual prices with the given strategy, and accumulates the errors of the forecasts. The default strategy is
+     *  backtested incrementally, as by {@link #backtest(StockSeries, int)}.
+     *
+     * @param series the series to backtest
+     * @param windowLength the number of prices a forecast is made from
+     * @param strategy the strategy making the forecasts
+     * @return the accumulated forecast errors
+     */
+    public static ForecastErrors backtest(StockSeries series, int windowLength, PredictionStrategy strategy) {
+        return backtest(series.getPrices(), series.getOffset(), series.size(), windowLength, strategy);
+    }
+
+    /**
+     * Backtests the given strategy like {@link #backtest(StockSeries, int, PredictionStrategy)}, over prices held in a
+     *  buffer, for example a read-only view of off-heap memory. The buffer is read in place by absolute index, from
+     *  index 0 to its limit; the array backing a heap buffer is read directly.
+     *
+     * @param prices the prices to backtest, in chronological order
+     * @param windowLength the number of prices a forecast is made from
+     * @param strategy the strategy making the forecasts
+     * @return the accumulated forecast errors
+     */
+    public static ForecastErrors backtest(DoubleBuffer prices, int windowLength, PredictionStrategy strategy) {
+        if (prices.hasArray()) {
+            return backtest(prices.array(), prices.arrayOffset(), prices.limit(), windowLength, strategy);
+        }
+        if (strategy instanceof SecondHighestStrategy) {
+            return backtestSecondHighest(prices, windowLength);
+        }
+        ForecastErrors errors = new ForecastErrors();
+        int windows = prices.limit() - windowLength - StockPredictor.PREDICTED_POINTS + 1;
+        double[] predictions = new double[StockPredictor.PREDICTED_POINTS];
+        for (int start = 0; start < windows; start++) {
+            int next = start + windowLength;
+            strategy.predict(prices, start, windowLength, predictions, 0);
+            errors.countWindow();
+            for (int step = 0; step < StockPredictor.PREDICTED_POINTS; step++) {
+                errors.add(predictions[step], prices.get(next + step));
+            }
+        }
+        return errors;
+    }
+
+    private static ForecastErrors backtest(double[] prices, int offset, int size, int windowLength,
+                                           PredictionStrategy strategy) {
+        if (strategy instanceof SecondHighestStrategy) {
+            return backtestSecondHighest(prices, offset, size, windowLength);
+        }
+        ForecastErrors errors = new ForecastErrors();
+        int windows = size - windowLength - StockPredictor.PREDICTED_POINTS + 1;
+        double[] predictions = new double[StockPredictor.PREDICTED_POINTS];
+        for (int start = offset; start < offset + windows; start++) {
+            int next = start + windowLength;
+            strategy.predict(prices, start, windowLength, predictions, 0);
+            errors.countWindow();
+            for (int step = 0; step < StockPredictor.PREDICTED_POINTS; step++) {
+                errors.add(predictions[step], prices[next + step]);
+            }
+        }
+        return errors;
+    }
+
+    private static ForecastErrors backtestSecondHighest(double[] prices, int offset, int size, int windowLength) {
+        ForecastErrors errors = new ForecastErrors();
+        int windows = size - windowLength - StockPredictor.PREDICTED_POINTS + 1;
+        if (windows <= 0) {
+            return errors;
+        }
+        SlidingSecondHighest window = new SlidingSecondHighest(windowLength);
+        for (int i = offset; i < offset + windowLength - 1; i++) {
+            window.add(prices[i]);
+        }
+        for (int start = offset; start < offset + windows; start++) {
+            int next = start + windowLength;
+            window.add(prices[next - 1]);
+
+            double firstPrice = window.firstPredictedPrice();
+            double secondPrice = StockPredictor.predictSecondPrice(prices[next - 1], firstPrice);
+            double thirdPrice = StockPredictor.predictThirdPrice(firstPrice, secondPrice);
+            errors.countWindow();
+            errors.add(firstPrice, prices[next]);
+            errors.add(secondPrice, prices[next + 1]);
+            errors.add(thirdPrice, prices[next + 2]);
+
+            window.removeOldest();
+        }
+        return errors;
+    }
+
+    private static ForecastErrors backtestSecondHighest(DoubleBuffer prices, int windowLength) {
+        ForecastErrors errors = new ForecastErrors();
+        int windows = prices.limit() - windowLength - StockPredictor.PREDICTED_POINTS + 1;
+        if (windows <= 0) {
+            return errors;
+        }
+        SlidingSecondHighest window = new SlidingSecondHighest(windowLength);
+        for (int i = 0; i < windowLength - 1; i++) {
+            window.add(prices.get(i));
+        }
+        for (int start = 0; start < windows; start++) {
+            int next = start + windowLength;
+            double lastPrice = prices.get(next - 1);
+            window.add(lastPrice);
+
+            double firstPrice = window.firstPredictedPrice();
+            double secondPrice = StockPredictor.predictSecondPrice(lastPrice, firstPrice);
+            double thirdPrice = StockPredictor.predictThirdPrice(firstPrice, secondPrice);
+            errors.countWindow();
+            errors.add(firstPrice, prices.get(next));
+            errors.add(secondPrice, prices.get(next + 1));
+            errors.add(thirdPrice, prices.get(next + 2));
+
+            window.removeOldest();
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,90 @@
+package org.com.stockpredictor.backtest;
+
+import lombok.Getter;
+
+/**
+ * Accumulates the errors of forecasts compared with the actual prices. Instances can be merged, so that per-ticker
+ *  errors can be rolled up per exchange. Not thread-safe.
+ */
+@Getter
+public class ForecastErrors {
+
+    /**
+     * Number of windows a forecast was made for.
+     */
+    private long windows;
+
+    /**
+     * Number of forecast points compared with an actual price.
+     */
+    private long points;
+
+    private double absoluteErrorSum;
+
+    /**
+     * Number of forecast points whose actual price is not zero, used for the percentage error.
+     */
+    private long percentagePoints;
+
+    private double absolutePercentageErrorSum;
+
+    /**
+     * Records one forecast point.
+     *
+     * @param predicted the predicted price
+     * @param actual the actual price
+     */
+    public void add(double predicted, double actual) {
+        double absoluteError = Math.abs(predicted - actual);
+        points++;
+        absoluteErrorSum += absoluteError;
+        if (actual != 0) {
+            percentagePoints++;
+            absolutePercentageErrorSum += absoluteError / Math.abs(actual);
+        }
+    }
+
+    /**
+     * Records that a forecast was made for one more window.
+     */
+    public void countWindow() {
+        windows++;
+    }
+
+    /**
+     * Adds the errors accumulated by another instance to this one.
+     *
+     * @param other the errors to add
+     */
+    public void merge(ForecastErrors other) {
+        windows += other.windows;
+        points += other.points;
+        absoluteErrorSum += other.absoluteErrorSum;
+        percentagePoints += other.percentagePoints;
+        absolutePercentageErrorSum += other.absolutePercentageErrorSum;
+    }
+
+    /**
+     * Returns the mean absolute error, or NaN when no point was recorded.
+     *
+     * @return the mean absolute error
+     */
+    public double meanAbsoluteError() {
+        return points == 0 ? Double.NaN : absoluteErrorSum / points;
+    }
+
+    /**
+     * Returns the mean absolute percentage error, as a percentage, or NaN when no point was recorded.
+     *
+     * @return the mean absolute percentage error
+     */
+    public double meanAbsolutePercentageError() {
+        return percentagePoints == 0 ? Double.NaN : 100 * absolutePercentageErrorSum / percentagePoints;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d windows, MAE %.4f, MAPE %.2f%%",
+                windows, meanAbsoluteError(), meanAbsolutePercentageError());
+    }
+}
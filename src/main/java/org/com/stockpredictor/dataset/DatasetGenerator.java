@@ -0,0 +1,292 @@
+package org.com.stockpredictor.dataset;
+
+import com.google.common.hash.Hashing;
+import org.com.stockpredictor.model.EpochDayFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates a synthetic exchanges folder, laid out like the input of {@link org.com.stockpredictor.Main}: one
+ *  directory per exchange holding one CSV file per ticker. Prices follow a random walk with the configured
+ *  volatility, and a configured share of the rows is malformed in one of the ways the parser rejects.
+ *  <p>
+ *  The random generator of every file is seeded from the dataset seed and the position of the file, so the files
+ *  are the same whatever the number of threads and the order they are written in. Files are written concurrently,
+ *  every thread formatting rows straight into its own reused chunk, written to the file whenever it fills up.
+ */
+public class DatasetGenerator {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int MAX_ROW_LENGTH = 64;
+    private static final int MIN_TICKER_LENGTH = 3;
+    private static final long MIN_PRICE_CENTS = 1;
+    private static final long MAX_PRICE_CENTS = 100_000_000_000L;
+    private static final byte[] BAD_PRICE = "N/A".getBytes(StandardCharsets.US_ASCII);
+
+    private final DatasetSpec spec;
+    private final ThreadLocal<byte[]> chunks = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder malformedRows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public DatasetGenerator(DatasetSpec spec) {
+        spec.validate();
+        this.spec = spec;
+    }
+
+    /**
+     * Generates a dataset from the command line.
+     *
+     * @param args the output folder followed by optional flags (see {@link DatasetSpec#parse(String[])})
+     */
+    public static void main(String[] args) {
+        DatasetSpec spec;
+        try {
+            spec = DatasetSpec.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        DatasetGenerator generator = new DatasetGenerator(spec);
+        long start = System.nanoTime();
+        List<Path> files;
+        try {
+            files = generator.generate();
+        } catch (IOException e) {
+            System.err.printf("Unable to generate dataset in: %s, with error: %s\n", spec.getOutputFolder(), e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while generating the dataset");
+            return;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = generator.getBytes() / 1e6;
+        System.out.printf("Generated %d files, %d rows (%d malformed), %.1f MB in %.3f s (%.1f MB/s)\n",
+                files.size(), generator.getRows(), generator.getMalformedRows(), megabytes, elapsedSeconds,
+                megabytes / elapsedSeconds);
+    }
+
+    /**
+     * Creates the exchange folders and writes all the files, replacing the files that already exist.
+     *
+     * @return the generated files, exchange by exchange
+     * @throws IOException when a folder or a file cannot be written
+     * @throws InterruptedException when interrupted while waiting for the files to be written
+     */
+    public List<Path> generate() throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        for (int exchange = 0; exchange < spec.getExchanges(); exchange++) {
+            Path exchangeFolder = Files.createDirectories(spec.getOutputFolder().resolve(exchangeName(exchange)));
+            for (int file = 0; file < spec.getFilesPerExchange(); file++) {
+                files.add(exchangeFolder.resolve(tickerName(file) + ".csv"));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(spec.getThreads());
+        try {
+            List<Future<?>> writes = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                int exchange = i / spec.getFilesPerExchange();
+                int file = i % spec.getFilesPerExchange();
+                Path path = files.get(i);
+                writes.add(executor.submit(() -> {
+                    writeFile(path, exchange, file);
+                    return null;
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return files;
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getMalformedRows() {
+        return malformedRows.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Names an exchange folder after its index.
+     *
+     * @param exchange the index of the exchange
+     * @return the folder name
+     */
+    static String exchangeName(int exchange) {
+        return "EX" + exchange;
+    }
+
+    /**
+     * Names a ticker after its index in its exchange: "AAA", "AAB" and so on, growing longer past "ZZZ".
+     *
+     * @param file the index of the file in its exchange
+     * @return the ticker
+     */
+    static String tickerName(int file) {
+        StringBuilder ticker = new StringBuilder();
+        int remaining = file;
+        do {
+            ticker.append((char) ('A' + remaining % 26));
+            remaining /= 26;
+        } while (remaining > 0 || ticker.length() < MIN_TICKER_LENGTH);
+        return ticker.reverse().toString();
+    }
+
+    private void writeFile(Path path, int exchange, int file) throws IOException {
+        Random random = new Random(Hashing.murmur3_128().newHasher()
+                .putLong(spec.getSeed())
+                .putInt(exchange)
+                .putInt(file)
+                .hash()
+                .asLong());
+        byte[] ticker = tickerName(file).getBytes(StandardCharsets.US_ASCII);
+        byte[] chunk = chunks.get();
+        int size = 0;
+        int epochDay = (int) spec.getStartDate().toEpochDay();
+        long priceCents = 1_000 + random.nextInt(100_000);
+        long malformed = 0;
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int row = 0; row < spec.getRowsPerFile(); row++, epochDay++) {
+                priceCents = nextPrice(random, priceCents);
+                if (size + MAX_ROW_LENGTH > chunk.length) {
+                    written += writeFully(channel, chunk, size);
+                    size = 0;
+                }
+                if (spec.getMalformedRate() > 0 && random.nextDouble() < spec.getMalformedRate()) {
+                    size = appendMalformedRow(chunk, size, random.nextInt(4), ticker, epochDay, priceCents);
+                    malformed++;
+                } else {
+                    size = appendRow(chunk, size, ticker, epochDay, priceCents);
+                }
+            }
+            written += writeFully(channel, chunk, size);
+        }
+        rows.add(spec.getRowsPerFile());
+        malformedRows.add(malformed);
+        bytes.add(written);
+    }
+
+    private long nextPrice(Random random, long priceCents) {
+        long next = Math.round(priceCents * (1 + random.nextGaussian() * spec.getVolatility()));
+        return Math.min(MAX_PRICE_CENTS, Math.max(MIN_PRICE_CENTS, next));
+    }
+
+    private static int writeFully(FileChannel channel, byte[] chunk, int size) throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(chunk, 0, size);
+        while (content.hasRemaining()) {
+            channel.write(content);
+        }
+        return size;
+    }
+
+    private static int appendRow(byte[] chunk, int size, byte[] ticker, int epochDay, long priceCents) {
+        size = appendBytes(chunk, size, ticker);
+        chunk[size++] = ',';
+        size = appendDate(chunk, size, epochDay);
+        chunk[size++] = ',';
+        size = appendPrice(chunk, size, priceCents);
+        chunk[size++] = '\n';
+        return size;
+    }
+
+    /**
+     * Appends a row the parser rejects, the kind picked among a missing price, an empty ticker, a price that is not
+     *  a number and a date in another format.
+     */
+    private static int appendMalformedRow(byte[] chunk, int size, int kind, byte[] ticker, int epochDay,
+                                          long priceCents) {
+        if (kind != 1) {
+            size = appendBytes(chunk, size, ticker);
+        }
+        chunk[size++] = ',';
+        if (kind == 3) {
+            size = appendAscii(chunk, size, LocalDate.ofEpochDay(epochDay).toString());
+        } else {
+            size = appendDate(chunk, size, epochDay);
+        }
+        if (kind != 0) {
+            chunk[size++] = ',';
+            size = kind == 2 ? appendBytes(chunk, size, BAD_PRICE) : appendPrice(chunk, size, priceCents);
+        }
+        chunk[size++] = '\n';
+        return size;
+    }
+
+    private static int appendDate(byte[] chunk, int size, int epochDay) {
+        if (EpochDayFormat.isTabulated(epochDay)) {
+            EpochDayFormat.copyTo(epochDay, chunk, size);
+            return size + EpochDayFormat.LENGTH;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        size = appendDigits(chunk, size, date.getDayOfMonth(), 2);
+        chunk[size++] = '-';
+        size = appendDigits(chunk, size, date.getMonthValue(), 2);
+        chunk[size++] = '-';
+        return appendDigits(chunk, size, date.getYear(), 4);
+    }
+
+    private static int appendPrice(byte[] chunk, int size, long priceCents) {
+        size = appendDigits(chunk, size, priceCents / 100, 1);
+        chunk[size++] = '.';
+        return appendDigits(chunk, size, priceCents % 100, 2);
+    }
+
+    /**
+     * Appends a non-negative number, left-padded with zeros to the given minimum number of digits.
+     */
+    private static int appendDigits(byte[] chunk, int size, long value, int minimumDigits) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minimumDigits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            chunk[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return size + digits;
+    }
+
+    private static int appendBytes(byte[] chunk, int size, byte[] value) {
+        System.arraycopy(value, 0, chunk, size, value.length);
+        return size + value.length;
+    }
+
+    private static int appendAscii(byte[] chunk, int size, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            chunk[size++] = (byte) value.charAt(i);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,176 @@
+package org.com.stockpredictor.dataset;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Describes a synthetic exchanges folder: its size, how prices move and how many rows are malformed. The same
+ *  description always generates the same files, whatever the number of threads writing them.
+ */
+@Value
+@Builder
+public class DatasetSpec {
+
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Directory the exchange folders are created in.
+     */
+    Path outputFolder;
+
+    /**
+     * Number of exchange folders.
+     */
+    @Builder.Default
+    int exchanges = 2;
+
+    /**
+     * Number of CSV files in every exchange folder.
+     */
+    @Builder.Default
+    int filesPerExchange = 10;
+
+    /**
+     * Number of rows of every file, malformed ones included.
+     */
+    @Builder.Default
+    int rowsPerFile = 10_000;
+
+    /**
+     * Standard deviation of the daily relative price change.
+     */
+    @Builder.Default
+    double volatility = 0.02;
+
+    /**
+     * Probability of a row being malformed, from 0 to 1.
+     */
+    double malformedRate;
+
+    /**
+     * Seed from which the content of every file is derived.
+     */
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * Number of files written concurrently.
+     */
+    @Builder.Default
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Date of the first row of every file, every following row being one day later.
+     */
+    @Builder.Default
+    LocalDate startDate = LocalDate.of(1990, 1, 1);
+
+    /**
+     * Parses the command line arguments of the generator. The first argument is the output folder, the rest are
+     *  optional flags.
+     *
+     * @param args the command line arguments
+     * @return the parsed description
+     * @throws IllegalArgumentException when the arguments are missing, cannot be parsed or describe an invalid dataset
+     */
+    public static DatasetSpec parse(String[] args) {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Invalid number of arguments");
+        }
+        DatasetSpecBuilder builder = DatasetSpec.builder().outputFolder(Path.of(args[0]));
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (option.startsWith("--exchanges=")) {
+                builder.exchanges(parsePositiveInt(option, "--exchanges="));
+            } else if (option.startsWith("--files-per-exchange=")) {
+                builder.filesPerExchange(parsePositiveInt(option, "--files-per-exchange="));
+            } else if (option.startsWith("--rows-per-file=")) {
+                builder.rowsPerFile(parsePositiveInt(option, "--rows-per-file="));
+            } else if (option.startsWith("--volatility=")) {
+                builder.volatility(parseDouble(option, "--volatility="));
+            } else if (option.startsWith("--malformed-rate=")) {
+                builder.malformedRate(parseDouble(option, "--malformed-rate="));
+            } else if (option.startsWith("--seed=")) {
+                builder.seed(parseLong(option, "--seed="));
+            } else if (option.startsWith("--threads=")) {
+                builder.threads(parsePositiveInt(option, "--threads="));
+            } else if (option.startsWith("--start-date=")) {
+                builder.startDate(parseDate(option, "--start-date="));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        DatasetSpec spec = builder.build();
+        spec.validate();
+        return spec;
+    }
+
+    /**
+     * Checks that the files can be generated.
+     *
+     * @throws IllegalArgumentException when a parameter is out of range
+     */
+    public void validate() {
+        if (exchanges <= 0 || filesPerExchange <= 0 || rowsPerFile <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("The dataset size and the number of threads must be positive");
+        }
+        if (!(volatility >= 0 && volatility < 1)) {
+            throw new IllegalArgumentException("The volatility must be at least 0 and below 1");
+        }
+        if (!(malformedRate >= 0 && malformedRate <= 1)) {
+            throw new IllegalArgumentException("The malformed row rate must be between 0 and 1");
+        }
+        if (startDate.plusDays(rowsPerFile - 1).isAfter(LAST_DATE)) {
+            throw new IllegalArgumentException("The rows of a file must be dated before " + LAST_DATE);
+        }
+    }
+
+    /**
+     * Returns the total number of files.
+     *
+     * @return the number of files of all exchanges
+     */
+    public long getFileCount() {
+        return (long) exchanges * filesPerExchange;
+    }
+
+    private static int parsePositiveInt(String option, String prefix) {
+        int value;
+        try {
+            value = Integer.parseInt(option.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to parse option " + option + ": " + e.getMessage());
+        }
+        if (value <= 0) {
+            throw new IllegalArgumentException("Option " + option + " must be positive");
+        }
+        return value;
+    }
+
+    private static double parseDouble(String option, String prefix) {
+        try {
+            return Double.parseDouble(option.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to parse option " + option + ": " + e.getMessage());
+        }
+    }
+
+    private static long parseLong(String option, String prefix) {
+        try {
+            return Long.parseLong(option.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to parse option " + option + ": " + e.getMessage());
+        }
+    }
+
+    private static LocalDate parseDate(String option, String prefix) {
+        try {
+            return LocalDate.parse(option.substring(prefix.length()));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unable to parse option " + option + ": " + e.getMessage());
+        }
+    }
+}
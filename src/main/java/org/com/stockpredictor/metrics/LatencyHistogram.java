@@ -0,0 +1,96 @@
+package org.com.stockpredictor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Durations are counted in logarithmic buckets, 8 per power of two,
+ *  so percentiles are reported within 12.5% of the recorded value at a constant memory cost.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds, negative durations being counted as zero
+     */
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketOf(duration));
+        count.incrementAndGet();
+        totalNanos.addAndGet(duration);
+        maxNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean duration, or 0 when nothing was recorded.
+     *
+     * @return the mean duration in nanoseconds
+     */
+    public double getMeanNanos() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) totalNanos.get() / recorded;
+    }
+
+    /**
+     * Returns an upper bound of the duration below which the given fraction of the recorded durations fall.
+     *
+     * @param quantile the fraction, between 0 and 1
+     * @return the duration in nanoseconds, or 0 when nothing was recorded
+     */
+    public long percentileNanos(double quantile) {
+        long recorded = count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * recorded));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length(); bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (magnitude - SUB_BUCKET_BITS);
+        long width = 1L << (magnitude - SUB_BUCKET_BITS);
+        return magnitude == 62 && subBucket == SUB_BUCKETS - 1 ? Long.MAX_VALUE : lowerBound + width - 1;
+    }
+}
@@ -0,0 +1,272 @@
+package org.com.stockpredictor.metrics;
+
+import org.com.stockpredictor.parsing.ParseListener;
+import org.com.stockpredictor.parsing.RowError;
+import org.com.stockpredictor.parsing.RowErrorCounts;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes, rows and rejected rows parsed and times every {@link Stage} of the pipeline. Updates are
+ *  contention-free counter increments, so the metrics can stay on while processing. With the staged pipeline, the
+ *  depth of the input queue of every stage is sampled on read, and the time spent waiting on the queues is summed:
+ *  stall time when a stage's queue is full, idle time when it is empty. They are read through
+ *  {@link #getSummary()}, periodically with {@link #startPeriodicSummary(long)}, or over JMX once registered with
+ *  {@link #registerMBean()}.
+ */
+public class PipelineMetrics implements ParseListener, PipelineMetricsMXBean {
+
+    public static final String OBJECT_NAME = "org.com.stockpredictor:type=PipelineMetrics";
+
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final RowError[] ROW_ERRORS = RowError.values();
+
+    /**
+     * Number of files whose rejected rows are counted separately, so that long-running processes seeing many
+     *  distinct files keep bounded metrics; the rows of further files are only counted in the totals.
+     */
+    public static final int MAX_FILES_WITH_REJECTED_ROWS = 1000;
+
+    private final LongAdder filesParsed = new LongAdder();
+    private final LongAdder bytesParsed = new LongAdder();
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder[] rejectedRows = newCounters();
+    private final Map<String, LongAdder[]> rejectedRowsByFile = new ConcurrentHashMap<>();
+    private final Map<Stage, LatencyHistogram> stageLatencies = new EnumMap<>(Stage.class);
+    private final Map<Stage, BlockingQueue<?>> stageQueues = new ConcurrentHashMap<>();
+    private final Map<Stage, LongAdder> stallNanos = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> idleNanos = new EnumMap<>(Stage.class);
+
+    public PipelineMetrics() {
+        for (Stage stage : Stage.values()) {
+            stageLatencies.put(stage, new LatencyHistogram());
+            stallNanos.put(stage, new LongAdder());
+            idleNanos.put(stage, new LongAdder());
+        }
+    }
+
+    @Override
+    public void fileParsed(File file, long bytes, long rows, RowErrorCounts errors) {
+        filesParsed.increment();
+        bytesParsed.add(bytes);
+        rowsParsed.add(rows);
+        if (errors.total() > 0) {
+            LongAdder[] fileRejectedRows = rejectedRowsByFile.get(file.getPath());
+            if (fileRejectedRows == null && rejectedRowsByFile.size() < MAX_FILES_WITH_REJECTED_ROWS) {
+                fileRejectedRows = rejectedRowsByFile.computeIfAbsent(file.getPath(), path -> newCounters());
+            }
+            for (RowError error : ROW_ERRORS) {
+                rejectedRows[error.ordinal()].add(errors.count(error));
+                if (fileRejectedRows != null) {
+                    fileRejectedRows[error.ordinal()].add(errors.count(error));
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the duration of a stage.
+     *
+     * @param stage the stage
+     * @param startNanos the {@link System#nanoTime()} at which the stage started
+     */
+    public void recordSince(Stage stage, long startNanos) {
+        stageLatencies.get(stage).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Samples the depth of the input queue of a stage whenever the metrics are read.
+     *
+     * @param stage the stage
+     * @param queue the input queue of the stage
+     */
+    public void monitorQueue(Stage stage, BlockingQueue<?> queue) {
+        stageQueues.put(stage, queue);
+    }
+
+    /**
+     * Records time spent waiting for room in the full input queue of a stage.
+     *
+     * @param stage the stage whose queue was full
+     * @param nanos the time waited
+     */
+    public void recordStall(Stage stage, long nanos) {
+        stallNanos.get(stage).add(nanos);
+    }
+
+    /**
+     * Records time the workers of a stage spent waiting for input.
+     *
+     * @param stage the stage whose queue was empty
+     * @param nanos the time waited
+     */
+    public void recordIdle(Stage stage, long nanos) {
+        idleNanos.get(stage).add(nanos);
+    }
+
+    public LatencyHistogram getLatencies(Stage stage) {
+        return stageLatencies.get(stage);
+    }
+
+    public long getRejectedRows(RowError error) {
+        return rejectedRows[error.ordinal()].sum();
+    }
+
+    @Override
+    public long getFilesParsed() {
+        return filesParsed.sum();
+    }
+
+    @Override
+    public long getBytesParsed() {
+        return bytesParsed.sum();
+    }
+
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejectedRows() {
+        return toCounts(rejectedRows);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getRejectedRowsByFile() {
+        Map<String, Map<String, Long>> counts = new TreeMap<>();
+        rejectedRowsByFile.forEach((file, fileRejectedRows) -> counts.put(file, toCounts(fileRejectedRows)));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getMeanLatencies() {
+        Map<String, Double> latencies = new TreeMap<>();
+        stageLatencies.forEach((stage, histogram) -> latencies.put(stage.name(),
+                histogram.getMeanNanos() / NANOS_PER_MILLI));
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Double> getP99Latencies() {
+        Map<String, Double> latencies = new TreeMap<>();
+        stageLatencies.forEach((stage, histogram) -> latencies.put(stage.name(),
+                histogram.percentileNanos(0.99) / NANOS_PER_MILLI));
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        stageQueues.forEach((stage, queue) -> depths.put(stage.name(), queue.size()));
+        return depths;
+    }
+
+    @Override
+    public Map<String, Double> getStallMillis() {
+        return toMillis(stallNanos);
+    }
+
+    @Override
+    public Map<String, Double> getIdleMillis() {
+        return toMillis(idleNanos);
+    }
+
+    @Override
+    public String getSummary() {
+        StringJoiner rejected = new StringJoiner(", ");
+        for (RowError error : ROW_ERRORS) {
+            rejected.add(error.name().replace('_', ' ').toLowerCase(Locale.ROOT) + " " + getRejectedRows(error));
+        }
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "Parsed %d files, %d rows, %d bytes; rejected rows: %s",
+                getFilesParsed(), getRowsParsed(), getBytesParsed(), rejected));
+        stageLatencies.forEach((stage, histogram) -> summary.append(String.format(Locale.ROOT,
+                "\n%s: %d calls, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                stage.name().toLowerCase(Locale.ROOT), histogram.getCount(),
+                histogram.getMeanNanos() / NANOS_PER_MILLI,
+                histogram.percentileNanos(0.5) / NANOS_PER_MILLI,
+                histogram.percentileNanos(0.99) / NANOS_PER_MILLI,
+                histogram.getMaxNanos() / NANOS_PER_MILLI)));
+        for (Stage stage : Stage.values()) {
+            BlockingQueue<?> queue = stageQueues.get(stage);
+            if (queue != null) {
+                summary.append(String.format(Locale.ROOT, "\n%s queue: depth %d, stall %.3f ms, idle %.3f ms",
+                        stage.name().toLowerCase(Locale.ROOT), queue.size(),
+                        stallNanos.get(stage).sum() / NANOS_PER_MILLI, idleNanos.get(stage).sum() / NANOS_PER_MILLI));
+            }
+        }
+        return summary.toString();
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[ROW_ERRORS.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static Map<String, Long> toCounts(LongAdder[] counters) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (RowError error : ROW_ERRORS) {
+            counts.put(error.name(), counters[error.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    private static Map<String, Double> toMillis(Map<Stage, LongAdder> nanos) {
+        Map<String, Double> millis = new TreeMap<>();
+        nanos.forEach((stage, total) -> millis.put(stage.name(), total.sum() / NANOS_PER_MILLI));
+        return millis;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@link #OBJECT_NAME}, replacing any metrics
+     *  registered before.
+     */
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.printf("Unable to register the metrics MBean, with error: %s\n", e);
+        }
+    }
+
+    /**
+     * Prints the summary to the standard output at a fixed interval, from a daemon thread.
+     *
+     * @param intervalSeconds the interval between two summaries
+     * @return the scheduler printing the summaries, to shut down once done
+     */
+    public ScheduledExecutorService startPeriodicSummary(long intervalSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> System.out.println(getSummary()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        return scheduler;
+    }
+}
@@ -0,0 +1,73 @@
+package org.com.stockpredictor.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link PipelineMetrics}. Latencies are in milliseconds.
+ */
+public interface PipelineMetricsMXBean {
+
+    long getFilesParsed();
+
+    long getBytesParsed();
+
+    long getRowsParsed();
+
+    /**
+     * Returns the number of rejected rows for every reason.
+     *
+     * @return the counts, by reason
+     */
+    Map<String, Long> getRejectedRows();
+
+    /**
+     * Returns the number of rejected rows for every reason of every file that had some, for at most
+     *  {@link PipelineMetrics#MAX_FILES_WITH_REJECTED_ROWS} files.
+     *
+     * @return the counts by reason, by file path
+     */
+    Map<String, Map<String, Long>> getRejectedRowsByFile();
+
+    /**
+     * Returns the mean latency of every stage.
+     *
+     * @return the latencies, by stage
+     */
+    Map<String, Double> getMeanLatencies();
+
+    /**
+     * Returns the 99th percentile latency of every stage.
+     *
+     * @return the latencies, by stage
+     */
+    Map<String, Double> getP99Latencies();
+
+    /**
+     * Returns the number of items waiting in the input queue of every stage of the staged pipeline.
+     *
+     * @return the queue depths, by stage
+     */
+    Map<String, Integer> getQueueDepths();
+
+    /**
+     * Returns the time the stages feeding every stage of the staged pipeline spent waiting for room in its full
+     *  input queue, that is the time the stage held back the ones before it.
+     *
+     * @return the stall times, by stage
+     */
+    Map<String, Double> getStallMillis();
+
+    /**
+     * Returns the time the workers of every stage of the staged pipeline spent waiting for input.
+     *
+     * @return the idle times, by stage
+     */
+    Map<String, Double> getIdleMillis();
+
+    /**
+     * Returns a human-readable summary of all the metrics.
+     *
+     * @return the summary
+     */
+    String getSummary();
+}
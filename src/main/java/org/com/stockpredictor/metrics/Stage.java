@@ -0,0 +1,12 @@
+package org.com.stockpredictor.metrics;
+
+/**
+ * The stages a file goes through, timed separately by {@link PipelineMetrics}. Files are only read as a stage of
+ *  their own by the staged pipeline; otherwise reading is part of parsing.
+ */
+public enum Stage {
+    READ,
+    PARSE,
+    PREDICT,
+    WRITE
+}
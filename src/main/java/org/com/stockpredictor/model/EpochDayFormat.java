@@ -0,0 +1,84 @@
+package org.com.stockpredictor.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Formats dates held as days since 1970-01-01 in the "dd-MM-yyyy" format of the CSV files. The formatted bytes of
+ *  every day from 1900 to 2099 are computed once, so formatting such a date is a copy; other dates go through
+ *  {@link StockData#TIMESTAMP_DATE_FORMATTER}.
+ */
+public final class EpochDayFormat {
+
+    /**
+     * Length in bytes of a formatted date of the table.
+     */
+    public static final int LENGTH = 10;
+
+    private static final int FIRST_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int LAST_DAY = (int) LocalDate.of(2099, 12, 31).toEpochDay();
+
+    private EpochDayFormat() {
+    }
+
+    /**
+     * Formats a date.
+     *
+     * @param epochDay the date, as days since 1970-01-01
+     * @return the formatted date
+     */
+    public static String format(int epochDay) {
+        if (!isTabulated(epochDay)) {
+            return LocalDate.ofEpochDay(epochDay).format(StockData.TIMESTAMP_DATE_FORMATTER);
+        }
+        return new String(Table.FORMATTED, (epochDay - FIRST_DAY) * LENGTH, LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Tells whether a date can be copied with {@link #copyTo(int, byte[], int)}.
+     *
+     * @param epochDay the date, as days since 1970-01-01
+     * @return true when the date is between 1900 and 2099
+     */
+    public static boolean isTabulated(int epochDay) {
+        return epochDay >= FIRST_DAY && epochDay <= LAST_DAY;
+    }
+
+    /**
+     * Copies the {@link #LENGTH} bytes of a formatted date.
+     *
+     * @param epochDay a date for which {@link #isTabulated(int)} holds
+     * @param destination the array to copy to
+     * @param offset the index of the first byte to write
+     */
+    public static void copyTo(int epochDay, byte[] destination, int offset) {
+        System.arraycopy(Table.FORMATTED, (epochDay - FIRST_DAY) * LENGTH, destination, offset, LENGTH);
+    }
+
+    /**
+     * Holds the table, which is only computed on first use.
+     */
+    private static final class Table {
+
+        private static final byte[] FORMATTED = new byte[(LAST_DAY - FIRST_DAY + 1) * LENGTH];
+
+        static {
+            LocalDate date = LocalDate.ofEpochDay(FIRST_DAY);
+            for (int offset = 0; offset < FORMATTED.length; offset += LENGTH) {
+                writeDigits(date.getDayOfMonth(), offset, 2);
+                FORMATTED[offset + 2] = '-';
+                writeDigits(date.getMonthValue(), offset + 3, 2);
+                FORMATTED[offset + 5] = '-';
+                writeDigits(date.getYear(), offset + 6, 4);
+                date = date.plusDays(1);
+            }
+        }
+
+        private static void writeDigits(int value, int offset, int digits) {
+            for (int i = digits - 1; i >= 0; i--) {
+                FORMATTED[offset + i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+}
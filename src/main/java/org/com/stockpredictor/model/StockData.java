@@ -6,10 +6,11 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 /**
- * Represents a single stock data point.
+ * Represents a single stock data point. The stock is held as its code in the {@link TickerDictionary} and the date as
+ *  a number of days since 1970-01-01, so a data point is a small object sharing nothing with the line it was parsed
+ *  from.
  */
-@AllArgsConstructor
-@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Getter
 @EqualsAndHashCode
 @Value
@@ -21,14 +22,14 @@ public class StockData {
     public static final DateTimeFormatter TIMESTAMP_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     /**
-     * Unique identifier for the stock.
+     * Code of the stock identifier in the {@link TickerDictionary}.
      */
-    String id;
+    int tickerCode;
 
     /**
-     * Date of the stock data point.
+     * Date of the stock data point, as a number of days since 1970-01-01.
      */
-    LocalDate timestamp;
+    int epochDay;
 
     /**
      * Price of the stock at the given timestamp.
@@ -36,7 +37,41 @@ public class StockData {
     double price;
 
     public static StockData of(String stockId, LocalDate timestamp, double price) {
-        return new StockData(stockId, timestamp, price);
+        return of(stockId, Math.toIntExact(timestamp.toEpochDay()), price);
+    }
+
+    public static StockData of(String stockId, int epochDay, double price) {
+        return new StockData(TickerDictionary.codeOf(stockId), epochDay, price);
+    }
+
+    /**
+     * Creates a data point of a stock whose code is already known, skipping the dictionary lookup.
+     *
+     * @param tickerCode the code of the stock identifier in the {@link TickerDictionary}
+     * @param epochDay the date, as a number of days since 1970-01-01
+     * @param price the price
+     * @return the data point
+     */
+    public static StockData ofTickerCode(int tickerCode, int epochDay, double price) {
+        return new StockData(tickerCode, epochDay, price);
+    }
+
+    /**
+     * Unique identifier for the stock.
+     *
+     * @return the identifier
+     */
+    public String getId() {
+        return TickerDictionary.symbolOf(tickerCode);
+    }
+
+    /**
+     * Date of the stock data point.
+     *
+     * @return the date
+     */
+    public LocalDate getTimestamp() {
+        return LocalDate.ofEpochDay(epochDay);
     }
 
     /**
@@ -45,6 +80,11 @@ public class StockData {
      * @return a CSV-formatted string representing this stock data point
      */
     public String toCsvRow() {
-        return id + "," + timestamp.format(TIMESTAMP_DATE_FORMATTER) + "," + price + "\n";
+        return getId() + "," + EpochDayFormat.format(epochDay) + "," + price + "\n";
+    }
+
+    @Override
+    public String toString() {
+        return "StockData(id=" + getId() + ", timestamp=" + getTimestamp() + ", price=" + price + ")";
     }
 }
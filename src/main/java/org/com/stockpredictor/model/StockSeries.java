@@ -0,0 +1,254 @@
+package org.com.stockpredictor.model;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A columnar time series of a single stock: the dates and prices are held in parallel primitive arrays instead of
+ *  one {@link StockData} object per point. A series can be a view over a range of larger arrays, so windows are taken
+ *  without copying. Series are immutable once built; the backing arrays are exposed for hot loops and must not be
+ *  modified.
+ */
+public final class StockSeries {
+
+    private static final StockSeries EMPTY = new StockSeries("", new int[0], new double[0], 0, 0);
+
+    private final String id;
+    private final int[] epochDays;
+    private final double[] prices;
+    private final int offset;
+    private final int length;
+
+    private StockSeries(String id, int[] epochDays, double[] prices, int offset, int length) {
+        this.id = id;
+        this.epochDays = epochDays;
+        this.prices = prices;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Creates a series over the given arrays, which are taken over without copying.
+     *
+     * @param id the stock identifier
+     * @param epochDays the dates of the points, as days since 1970-01-01
+     * @param prices the prices of the points
+     * @return the series
+     */
+    public static StockSeries of(String id, int[] epochDays, double[] prices) {
+        if (epochDays.length != prices.length) {
+            throw new IllegalArgumentException("Dates and prices must have the same length");
+        }
+        return new StockSeries(TickerDictionary.intern(id), epochDays, prices, 0, prices.length);
+    }
+
+    /**
+     * Converts a list of stock data points of a single stock to a series. The id of the series is the id of the
+     *  first point.
+     *
+     * @param stockData the stock data points
+     * @return the series holding the same points
+     */
+    public static StockSeries fromStockData(List<StockData> stockData) {
+        if (stockData.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = builder(stockData.get(0).getId());
+        for (StockData stockDataPoint : stockData) {
+            builder.add(stockDataPoint.getEpochDay(), stockDataPoint.getPrice());
+        }
+        return builder.build();
+    }
+
+    public static StockSeries empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder(String id) {
+        return new Builder(id);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public int epochDayAt(int index) {
+        return epochDays[offset + checkIndex(index)];
+    }
+
+    public LocalDate timestampAt(int index) {
+        return LocalDate.ofEpochDay(epochDayAt(index));
+    }
+
+    public double priceAt(int index) {
+        return prices[offset + checkIndex(index)];
+    }
+
+    /**
+     * Returns the point at the given index as a {@link StockData}.
+     *
+     * @param index the index of the point in this series
+     * @return the stock data point
+     */
+    public StockData get(int index) {
+        return StockData.of(id, epochDayAt(index), priceAt(index));
+    }
+
+    /**
+     * Returns a view over a range of this series, sharing its backing arrays.
+     *
+     * @param from the index of the first point of the window
+     * @param windowLength the number of points in the window
+     * @return the window
+     */
+    public StockSeries window(int from, int windowLength) {
+        if (from < 0 || windowLength < 0 || from + windowLength > length) {
+            throw new IndexOutOfBoundsException(
+                    "Window [" + from + ", " + (from + windowLength) + ") out of bounds for size " + length);
+        }
+        return new StockSeries(id, epochDays, prices, offset + from, windowLength);
+    }
+
+    /**
+     * Returns a series holding only the points of this series: a window is copied to arrays of its own size, so that
+     *  keeping it does not keep the whole backing arrays reachable.
+     *
+     * @return this series if it spans its whole backing arrays, otherwise a copy of it
+     */
+    public StockSeries compact() {
+        if (offset == 0 && length == prices.length) {
+            return this;
+        }
+        return new StockSeries(id, Arrays.copyOfRange(epochDays, offset, offset + length),
+                Arrays.copyOfRange(prices, offset, offset + length), 0, length);
+    }
+
+    /**
+     * Returns the backing price array; the points of this series are at indices {@link #getOffset()} to
+     *  {@link #getOffset()} + {@link #size()}, exclusive.
+     *
+     * @return the backing price array
+     */
+    public double[] getPrices() {
+        return prices;
+    }
+
+    /**
+     * Returns the backing date array, laid out like {@link #getPrices()}.
+     *
+     * @return the backing date array
+     */
+    public int[] getEpochDays() {
+        return epochDays;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Converts this series to a list of stock data points.
+     *
+     * @return the stock data points of this series
+     */
+    public List<StockData> toStockDataList() {
+        ImmutableList.Builder<StockData> stockData = ImmutableList.builderWithExpectedSize(length);
+        int tickerCode = TickerDictionary.codeOf(id);
+        for (int i = 0; i < length; i++) {
+            stockData.add(StockData.ofTickerCode(tickerCode, epochDayAt(i), priceAt(i)));
+        }
+        return stockData.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StockSeries)) {
+            return false;
+        }
+        StockSeries other = (StockSeries) o;
+        return id.equals(other.id)
+                && Arrays.equals(epochDays, offset, offset + length,
+                        other.epochDays, other.offset, other.offset + other.length)
+                && Arrays.equals(prices, offset, offset + length,
+                        other.prices, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id.hashCode();
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + epochDays[i];
+            result = 31 * result + Double.hashCode(prices[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StockSeries(id=" + id + ", size=" + length + ")";
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + length);
+        }
+        return index;
+    }
+
+    /**
+     * Builds a series point by point, growing its arrays as needed. The built series is a view over the filled part
+     *  of the arrays, so building does not copy.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final String id;
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+        private double[] prices = new double[INITIAL_CAPACITY];
+        private int size;
+
+        private Builder(String id) {
+            this.id = TickerDictionary.intern(id);
+        }
+
+        public Builder add(int epochDay, double price) {
+            if (size == prices.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            epochDays[size] = epochDay;
+            prices[size] = price;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Builds the series. Points added afterwards are only ever written past the end of the built series, so the
+         *  builder can keep growing while the series built so far stay unchanged.
+         *
+         * @return the built series
+         */
+        public StockSeries build() {
+            return new StockSeries(id, epochDays, prices, 0, size);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.com.stockpredictor.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps every stock symbol to a small int code, so that data points hold a code instead of their own copy of the
+ *  symbol. Codes are assigned on first use and never released; there are far fewer symbols than data points.
+ */
+public final class TickerDictionary {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Map<String, Integer> CODES = new ConcurrentHashMap<>();
+    private static volatile String[] symbols = new String[INITIAL_CAPACITY];
+    private static int size;
+
+    private TickerDictionary() {
+    }
+
+    /**
+     * Returns the code of a symbol, assigning it the next code on first use.
+     *
+     * @param symbol the stock symbol
+     * @return the code of the symbol
+     */
+    public static int codeOf(String symbol) {
+        Integer code = CODES.get(symbol);
+        if (code != null) {
+            return code;
+        }
+        synchronized (TickerDictionary.class) {
+            code = CODES.get(symbol);
+            if (code == null) {
+                if (size == symbols.length) {
+                    symbols = Arrays.copyOf(symbols, size * 2);
+                }
+                code = size;
+                symbols[size++] = symbol;
+                // published after the symbol, so whoever sees the code also sees its symbol
+                CODES.put(symbol, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Returns the symbol of a code.
+     *
+     * @param code a code returned by {@link #codeOf(String)}
+     * @return the symbol
+     */
+    public static String symbolOf(int code) {
+        return symbols[code];
+    }
+
+    /**
+     * Returns the canonical instance of a symbol, shared by every caller.
+     *
+     * @param symbol the stock symbol
+     * @return the canonical symbol
+     */
+    public static String intern(String symbol) {
+        return symbolOf(codeOf(symbol));
+    }
+}
@@ -0,0 +1,103 @@
+package org.com.stockpredictor.parsing;
+
+import lombok.Value;
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Hands results over to a dedicated I/O thread which writes them, in batches, to a delegate sink, so that the threads
+ *  making predictions do not wait for the disk. The queue between the two is bounded: when the disk cannot keep up,
+ *  producers wait for room instead of buffering without limit.
+ */
+public class AsyncResultSink implements ResultSink {
+
+    private static final Result END_OF_RESULTS = new Result(null, null, null);
+
+    private final ResultSink delegate;
+    private final BlockingQueue<Result> queue;
+    private final int batchSize;
+    private final Thread writerThread;
+
+    /**
+     * Creates the sink and starts its I/O thread.
+     *
+     * @param delegate the sink the results are written to, only called from the I/O thread
+     * @param capacity the maximum number of results waiting to be written
+     * @param batchSize the maximum number of results taken from the queue at once
+     */
+    public AsyncResultSink(ResultSink delegate, int capacity, int batchSize) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.writerThread = new Thread(this::writeResults, "result-writer");
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues the result; the history, usually a window of the whole parsed file, is compacted first so that a queued
+     *  result only holds its own points.
+     */
+    @Override
+    public void write(File inputFile, StockSeries history, StockSeries predictions) {
+        put(new Result(inputFile, history.compact(), predictions));
+    }
+
+    /**
+     * Waits for all the submitted results to be written and closes the delegate sink.
+     */
+    @Override
+    public void close() {
+        put(END_OF_RESULTS);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    private void put(Result result) {
+        try {
+            queue.put(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.printf("Interrupted while queueing results for file: %s\n", result.getInputFile());
+        }
+    }
+
+    private void writeResults() {
+        List<Result> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            for (Result result : batch) {
+                if (result == END_OF_RESULTS) {
+                    return;
+                }
+                try {
+                    delegate.write(result.getInputFile(), result.getHistory(), result.getPredictions());
+                } catch (RuntimeException e) {
+                    System.err.printf("Unable to write results for file: %s, with error: %s\n",
+                            result.getInputFile().getName(), e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    @Value
+    private static class Result {
+        File inputFile;
+        StockSeries history;
+        StockSeries predictions;
+    }
+}
@@ -0,0 +1,114 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.collect.ImmutableList;
+import lombok.Value;
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The binary part file format of {@link OutputFormat#BINARY}, for downstream consumers that read the results back
+ *  without parsing text.
+ * <p>
+ * Layout, big-endian: a header of magic and version, followed by one record per input file: id length and UTF-8
+ *  bytes, history point count, prediction point count, then the epoch days and the prices of the history followed
+ *  by those of the predictions.
+ */
+public final class BinaryResults {
+
+    static final int MAGIC = 0x53505231;
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private BinaryResults() {
+    }
+
+    /**
+     * Reads all the records of a binary part file.
+     *
+     * @param partFile the part file
+     * @return the records, in the order they were written
+     * @throws IOException when the file cannot be read or is not a binary part file
+     */
+    public static List<Record> read(Path partFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a binary results file: " + partFile);
+            }
+            ImmutableList.Builder<Record> records = ImmutableList.builder();
+            while (buffer.hasRemaining()) {
+                records.add(readRecord(buffer));
+            }
+            return records.build();
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted binary results file: " + partFile, e);
+        }
+    }
+
+    /**
+     * Reads the record starting at the current position of a buffer, such as the position of an index entry.
+     *
+     * @param buffer the buffer positioned at the start of a record, left positioned after it
+     * @return the record
+     */
+    public static Record readRecord(ByteBuffer buffer) {
+        byte[] id = new byte[buffer.getInt()];
+        buffer.get(id);
+        String ticker = new String(id, StandardCharsets.UTF_8);
+        int historySize = buffer.getInt();
+        int predictionsSize = buffer.getInt();
+        return new Record(readSeries(buffer, ticker, historySize), readSeries(buffer, ticker, predictionsSize));
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    static int encodedLength(byte[] id, StockSeries history, StockSeries predictions) {
+        return 3 * Integer.BYTES + id.length
+                + (history.size() + predictions.size()) * (Integer.BYTES + Double.BYTES);
+    }
+
+    static void encode(ByteBuffer buffer, byte[] id, StockSeries history, StockSeries predictions) {
+        buffer.putInt(id.length)
+                .put(id)
+                .putInt(history.size())
+                .putInt(predictions.size());
+        writeSeries(buffer, history);
+        writeSeries(buffer, predictions);
+    }
+
+    private static void writeSeries(ByteBuffer buffer, StockSeries series) {
+        int size = series.size();
+        buffer.asIntBuffer().put(series.getEpochDays(), series.getOffset(), size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().put(series.getPrices(), series.getOffset(), size);
+        buffer.position(buffer.position() + size * Double.BYTES);
+    }
+
+    private static StockSeries readSeries(ByteBuffer buffer, String ticker, int size) {
+        int[] epochDays = new int[size];
+        double[] prices = new double[size];
+        buffer.asIntBuffer().get(epochDays);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().get(prices);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        return StockSeries.of(ticker, epochDays, prices);
+    }
+
+    /**
+     * The results written for one input file.
+     */
+    @Value
+    public static class Record {
+        StockSeries history;
+        StockSeries predictions;
+    }
+}
@@ -0,0 +1,86 @@
+package org.com.stockpredictor.parsing;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The compressions a CSV file can be stored with, told apart by the extension of the file.
+ */
+public enum Compression {
+
+    NONE(".csv"),
+    GZIP(".csv.gz"),
+    ZSTD(".csv.zst");
+
+    private static final int GZIP_BUFFER_SIZE = 256 * 1024;
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the compression of a file from its name.
+     *
+     * @param fileName the name of the file
+     * @return the compression, or null when the file is not a CSV file
+     */
+    public static Compression of(String fileName) {
+        for (Compression compression : values()) {
+            if (fileName.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether a file is a CSV file, compressed or not.
+     *
+     * @param fileName the name of the file
+     * @return true when the file can be parsed
+     */
+    public static boolean isCsv(String fileName) {
+        return of(fileName) != null;
+    }
+
+    /**
+     * Returns the name of the plain CSV file a file decompresses to, such as "TSLA.csv" for "TSLA.csv.gz".
+     *
+     * @param fileName the name of the file
+     * @return the name without the compression extension
+     */
+    public static String plainName(String fileName) {
+        Compression compression = of(fileName);
+        if (compression == null || compression == NONE) {
+            return fileName;
+        }
+        return fileName.substring(0, fileName.length() - compression.extension.length()) + NONE.extension;
+    }
+
+    /**
+     * Wraps a stream of compressed bytes into a stream of the decompressed bytes.
+     *
+     * @param compressed the compressed stream
+     * @return the decompressed stream
+     * @throws IOException when the stream cannot be read
+     */
+    InputStream decompress(InputStream compressed) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(compressed, GZIP_BUFFER_SIZE);
+            case ZSTD:
+                return new ZstdInputStream(compressed);
+            default:
+                return compressed;
+        }
+    }
+}
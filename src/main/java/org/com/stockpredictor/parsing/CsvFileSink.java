@@ -0,0 +1,29 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Writes the results of every input file to a CSV file of the same name in the output directory, without the
+ *  compression extension of compressed input files. Every calling thread reuses its own {@link StockCsvWriter}, and
+ *  with it its own buffer.
+ */
+public class CsvFileSink implements ResultSink {
+
+    private final ThreadLocal<StockCsvWriter> writers;
+
+    public CsvFileSink(Path outputDirectory) {
+        this.writers = ThreadLocal.withInitial(() -> new StockCsvWriter(outputDirectory));
+    }
+
+    @Override
+    public void write(File inputFile, StockSeries history, StockSeries predictions) {
+        writers.get().write(Compression.plainName(inputFile.getName()), history, predictions);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,109 @@
+package org.com.stockpredictor.parsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Feeds a compressed file, or its content already read into memory, to a {@link StockCsvByteParser}, decompressing it on a separate thread so that
+ *  decompression overlaps with parsing. The decompressing thread fills large chunks taken from a small fixed pool and
+ *  hands them to the parsing thread, which gives them back once copied, so memory stays bounded whatever the size of
+ *  the file.
+ */
+class DecompressingCsvReader {
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int CHUNKS = 4;
+    private static final ByteBuffer END_OF_INPUT = ByteBuffer.allocate(0);
+
+    private DecompressingCsvReader() {
+    }
+
+    /**
+     * Parses the whole decompressed content of the file.
+     *
+     * @param file the file to parse
+     * @param compression the compression of the file
+     * @param parser the parser receiving the decompressed content
+     * @throws IOException when the file cannot be read or decompressed
+     */
+    static void read(File file, Compression compression, StockCsvByteParser parser) throws IOException {
+        read(Files.newInputStream(file.toPath()), compression, file.getName(), parser);
+    }
+
+    /**
+     * Parses the whole decompressed content of a compressed stream, such as the content of a file already read into
+     *  memory.
+     *
+     * @param source the compressed stream, closed once read
+     * @param compression the compression of the stream
+     * @param name the name of the stream, used to name the decompressing thread and in error messages
+     * @param parser the parser receiving the decompressed content
+     * @throws IOException when the stream cannot be read or decompressed
+     */
+    static void read(InputStream source, Compression compression, String name, StockCsvByteParser parser)
+            throws IOException {
+        BlockingQueue<ByteBuffer> freeChunks = new ArrayBlockingQueue<>(CHUNKS);
+        BlockingQueue<ByteBuffer> filledChunks = new ArrayBlockingQueue<>(CHUNKS + 1);
+        for (int i = 0; i < CHUNKS; i++) {
+            freeChunks.add(ByteBuffer.allocate(CHUNK_SIZE));
+        }
+        IOException[] failure = new IOException[1];
+        Thread decompressor = new Thread(() -> {
+            try (InputStream compressedInput = source; InputStream input = compression.decompress(compressedInput)) {
+                while (true) {
+                    ByteBuffer chunk = freeChunks.take();
+                    chunk.clear();
+                    int read = input.readNBytes(chunk.array(), 0, chunk.capacity());
+                    if (read == 0) {
+                        break;
+                    }
+                    chunk.limit(read);
+                    filledChunks.put(chunk);
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            } catch (RuntimeException e) {
+                failure[0] = new IOException(e);
+            } catch (InterruptedException e) {
+                // the parsing thread stopped early
+                return;
+            }
+            filledChunks.add(END_OF_INPUT);
+        }, "decompress-" + name);
+        decompressor.setDaemon(true);
+        decompressor.start();
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        try {
+            ByteBuffer chunk;
+            while ((chunk = filledChunks.take()) != END_OF_INPUT) {
+                if (buffer.remaining() < chunk.remaining()) {
+                    // the trailing incomplete line plus the chunk do not fit
+                    buffer = ByteBuffer.allocate(buffer.position() + chunk.remaining()).put(buffer.flip());
+                }
+                buffer.put(chunk);
+                freeChunks.add(chunk);
+                buffer.flip();
+                parser.parse(buffer);
+                buffer.compact();
+            }
+            decompressor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing " + name);
+        } finally {
+            decompressor.interrupt();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        buffer.flip();
+        parser.finish(buffer);
+    }
+}
@@ -0,0 +1,23 @@
+package org.com.stockpredictor.parsing;
+
+/**
+ * The ways in which {@link StockCsvParser} can read a CSV file.
+ */
+public enum InputMode {
+
+    /**
+     * Reads the file line by line as text and splits every line into columns.
+     */
+    READER,
+
+    /**
+     * Reads the file through a {@link java.nio.channels.FileChannel} into a reused buffer and parses the raw bytes
+     *  with a {@link StockCsvByteParser}.
+     */
+    CHANNEL,
+
+    /**
+     * Maps the file into memory, segment by segment, and parses the mapped bytes with a {@link StockCsvByteParser}.
+     */
+    MAPPED
+}
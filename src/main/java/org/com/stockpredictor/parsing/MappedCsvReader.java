@@ -0,0 +1,51 @@
+package org.com.stockpredictor.parsing;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Feeds a file to a {@link StockCsvByteParser} through memory-mapped segments, so that the parser runs directly over
+ *  the page cache without copying. Files larger than a single mapping are read segment by segment, each segment
+ *  starting at the first line not fully parsed by the previous one.
+ */
+class MappedCsvReader {
+
+    /**
+     * Default size of a mapped segment, kept well below the 2 GB limit of a single mapping.
+     */
+    static final long DEFAULT_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    private MappedCsvReader() {
+    }
+
+    /**
+     * Parses the whole content of the channel.
+     *
+     * @param channel the channel of the file to parse, which stays open
+     * @param parser the parser receiving the content
+     * @param segmentSize the size of a mapped segment
+     * @throws IOException when the file cannot be mapped
+     */
+    static void read(FileChannel channel, StockCsvByteParser parser, long segmentSize) throws IOException {
+        long fileSize = channel.size();
+        long segmentStart = 0;
+        long currentSegmentSize = segmentSize;
+        while (segmentStart < fileSize) {
+            long length = Math.min(currentSegmentSize, fileSize - segmentStart);
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, length);
+            if (segmentStart + length == fileSize) {
+                parser.finish(segment);
+                return;
+            }
+            parser.parse(segment);
+            if (segment.position() == 0) {
+                // a single line does not fit in the segment
+                currentSegmentSize = Math.min(currentSegmentSize * 2, Integer.MAX_VALUE);
+            } else {
+                segmentStart += segment.position();
+                currentSegmentSize = segmentSize;
+            }
+        }
+    }
+}
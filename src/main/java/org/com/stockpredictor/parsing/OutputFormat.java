@@ -0,0 +1,39 @@
+package org.com.stockpredictor.parsing;
+
+/**
+ * The ways in which the results of the input files are written.
+ */
+public enum OutputFormat {
+
+    /**
+     * Writes one CSV file per input file, see {@link CsvFileSink}.
+     */
+    FILES(null),
+
+    /**
+     * Appends the CSV rows of all the input files of an exchange to a few rolling part files, see
+     *  {@link PartitionedResultSink}.
+     */
+    CSV(".csv"),
+
+    /**
+     * Appends the results of all the input files of an exchange to a few rolling binary part files, see
+     *  {@link BinaryResults}.
+     */
+    BINARY(".bin");
+
+    private final String partExtension;
+
+    OutputFormat(String partExtension) {
+        this.partExtension = partExtension;
+    }
+
+    /**
+     * Returns the extension of the part files of a partitioned format.
+     *
+     * @return the extension, or null for {@link #FILES}
+     */
+    public String getPartExtension() {
+        return partExtension;
+    }
+}
@@ -0,0 +1,21 @@
+package org.com.stockpredictor.parsing;
+
+import java.io.File;
+
+/**
+ * Notified by a {@link StockCsvParser} every time it finishes parsing a file. A file read back from the
+ *  {@link SeriesCache} is reported too, with the size of the file and the number of rows it was cached with: its
+ *  rejected rows are not known any more and are not counted.
+ */
+public interface ParseListener {
+
+    /**
+     * Called once a file was parsed.
+     *
+     * @param file the parsed file
+     * @param bytes the number of bytes read
+     * @param rows the number of rows read, including the rejected ones
+     * @param errors the counts of rejected rows
+     */
+    void fileParsed(File file, long bytes, long rows, RowErrorCounts errors);
+}
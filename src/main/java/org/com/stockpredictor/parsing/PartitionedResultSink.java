@@ -0,0 +1,230 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Appends the results of all the input files of an exchange, the name of the directory containing them, to a few
+ *  rolling part files of the output directory instead of creating one small file per input file. The part files of
+ *  an exchange are named "&lt;exchange&gt;-00000", "&lt;exchange&gt;-00001" and so on, with the extension of the
+ *  format, and a new part is started once a part would grow past the configured size. A record is never split
+ *  between two parts.
+ * <p>
+ * Every exchange buffers its records and writes them with large sequential writes. Optionally, an index of the
+ *  records is written next to the parts on close, as "&lt;exchange&gt;.index.csv" holding one
+ *  "ticker,part file,offset,length" line per record; when a ticker was written several times, its last line is the
+ *  latest record.
+ */
+public class PartitionedResultSink implements ResultSink {
+
+    /**
+     * Suffix of the index file of an exchange.
+     */
+    public static final String INDEX_SUFFIX = ".index.csv";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String DEFAULT_EXCHANGE = "results";
+
+    private final Path outputDirectory;
+    private final OutputFormat format;
+    private final long maxPartBytes;
+    private final boolean indexed;
+    private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final ThreadLocal<StockCsvWriter> csvWriters;
+    private final ThreadLocal<ByteBuffer> binaryRecords = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+
+    /**
+     * Creates a sink writing its part files in the given directory.
+     *
+     * @param outputDirectory the directory the part files are written to
+     * @param format the format of the part files, {@link OutputFormat#CSV} or {@link OutputFormat#BINARY}
+     * @param maxPartBytes the size past which a new part file is started
+     * @param indexed whether the index of the records of every exchange is written
+     */
+    public PartitionedResultSink(Path outputDirectory, OutputFormat format, long maxPartBytes, boolean indexed) {
+        if (format.getPartExtension() == null) {
+            throw new IllegalArgumentException("Not a partitioned output format: " + format);
+        }
+        this.outputDirectory = outputDirectory;
+        this.format = format;
+        this.maxPartBytes = maxPartBytes;
+        this.indexed = indexed;
+        this.csvWriters = ThreadLocal.withInitial(() -> new StockCsvWriter(outputDirectory));
+    }
+
+    @Override
+    public void write(File inputFile, StockSeries history, StockSeries predictions) {
+        String exchange = inputFile.getParentFile() != null ? inputFile.getParentFile().getName() : DEFAULT_EXCHANGE;
+        ByteBuffer record = format == OutputFormat.CSV
+                ? csvWriters.get().format(history, predictions)
+                : encodeBinary(history, predictions);
+        try {
+            partitions.computeIfAbsent(exchange, Partition::new).append(history.getId(), record);
+        } catch (IOException e) {
+            System.err.printf("Unable to write results for file: %s, with error: %s\n", inputFile.getName(), e);
+        }
+    }
+
+    /**
+     * Writes the buffered records and the indexes, and closes the part files.
+     */
+    @Override
+    public void close() {
+        for (Partition partition : partitions.values()) {
+            try {
+                partition.close();
+            } catch (IOException e) {
+                System.err.printf("Unable to write results of exchange: %s, with error: %s\n",
+                        partition.exchange, e);
+            }
+        }
+    }
+
+    /**
+     * Opens a part file for writing, truncating it if it exists.
+     *
+     * @param part the path of the part file
+     * @return the channel the records of the part are written to
+     * @throws IOException if the part file cannot be opened
+     */
+    FileChannel openPart(Path part) throws IOException {
+        return FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private ByteBuffer encodeBinary(StockSeries history, StockSeries predictions) {
+        byte[] id = history.getId().getBytes(StandardCharsets.UTF_8);
+        int length = BinaryResults.encodedLength(id, history, predictions);
+        ByteBuffer record = binaryRecords.get();
+        if (record.capacity() < length) {
+            record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+            binaryRecords.set(record);
+        }
+        record.clear();
+        BinaryResults.encode(record, id, history, predictions);
+        return record.flip();
+    }
+
+    /**
+     * The part files of one exchange. Records are appended under the lock of the partition. When a write fails, the
+     *  content of the part past the last successful write is unknown: the part is abandoned, the records buffered
+     *  since are dropped along with their index entries, and the next record starts a new part.
+     */
+    private class Partition {
+
+        private final String exchange;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final StringBuilder index = new StringBuilder();
+        private int writtenIndexLength;
+        private FileChannel channel;
+        private String partName;
+        private int partNumber;
+        private long partBytes;
+
+        Partition(String exchange) {
+            this.exchange = exchange;
+        }
+
+        synchronized void append(String ticker, ByteBuffer record) throws IOException {
+            int length = record.remaining();
+            if (channel == null || (partBytes > headerLength() && partBytes + length > maxPartBytes)) {
+                roll();
+            }
+            long offset = partBytes;
+            if (length > buffer.remaining()) {
+                flush();
+            }
+            boolean direct = length > buffer.capacity();
+            if (direct) {
+                writeFully(record);
+            } else {
+                buffer.put(record);
+            }
+            partBytes += length;
+            if (indexed) {
+                index.append(ticker).append(',').append(partName).append(',')
+                        .append(offset).append(',').append(length).append('\n');
+            }
+            if (direct) {
+                writtenIndexLength = index.length();
+            }
+        }
+
+        synchronized void close() throws IOException {
+            try {
+                if (channel != null) {
+                    flush();
+                    closePart();
+                }
+            } finally {
+                if (indexed) {
+                    Files.writeString(outputDirectory.resolve(exchange + INDEX_SUFFIX), index,
+                            StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        private void roll() throws IOException {
+            if (channel != null) {
+                flush();
+                closePart();
+            }
+            partName = String.format("%s-%05d%s", exchange, partNumber++, format.getPartExtension());
+            channel = openPart(outputDirectory.resolve(partName));
+            partBytes = headerLength();
+            if (format == OutputFormat.BINARY) {
+                BinaryResults.writeHeader(buffer);
+            }
+        }
+
+        private int headerLength() {
+            return format == OutputFormat.BINARY ? BinaryResults.HEADER_LENGTH : 0;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+            writtenIndexLength = index.length();
+        }
+
+        private void writeFully(ByteBuffer content) throws IOException {
+            try {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+            } catch (IOException | RuntimeException e) {
+                abandonPart();
+                throw e;
+            }
+        }
+
+        private void abandonPart() {
+            index.setLength(writtenIndexLength);
+            buffer.clear();
+            try {
+                closePart();
+            } catch (IOException e) {
+                // the write failure is reported instead
+            }
+        }
+
+        private void closePart() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+            }
+        }
+    }
+}
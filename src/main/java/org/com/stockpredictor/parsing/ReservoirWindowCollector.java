@@ -0,0 +1,84 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Picks a uniformly random window of consecutive rows decoded by a {@link StockCsvByteParser} in a single pass, like
+ *  {@link WindowSampler} but keeping the dates and prices of the ring in primitive arrays. The id of the window is the
+ *  id of the first row.
+ */
+class ReservoirWindowCollector implements StockRowHandler {
+
+    private final Random random;
+    private final int windowLength;
+    private final RowErrorCounts errors;
+    private final int[] ringEpochDays;
+    private final double[] ringPrices;
+    private final int[] selectedEpochDays;
+    private final double[] selectedPrices;
+    private String id;
+    private long rows;
+    private boolean selected;
+
+    ReservoirWindowCollector(Random random, int windowLength, RowErrorCounts errors) {
+        this.random = random;
+        this.windowLength = windowLength;
+        this.errors = errors;
+        this.ringEpochDays = new int[windowLength + 1];
+        this.ringPrices = new double[windowLength + 1];
+        this.selectedEpochDays = new int[windowLength];
+        this.selectedPrices = new double[windowLength];
+    }
+
+    @Override
+    public void onRow(int row, ByteBuffer buffer, int idStart, int idEnd, int epochDay, double price) {
+        if (id == null) {
+            byte[] idBytes = new byte[idEnd - idStart];
+            buffer.get(idStart, idBytes);
+            id = new String(idBytes, StandardCharsets.UTF_8);
+        }
+        int ringIndex = (int) (rows % ringPrices.length);
+        ringEpochDays[ringIndex] = epochDay;
+        ringPrices[ringIndex] = price;
+        rows++;
+        long windowStart = rows - ringPrices.length;
+        if (windowStart >= 0 && WindowSampler.selects(random, windowStart)) {
+            for (int i = 0; i < windowLength; i++) {
+                int index = (int) ((windowStart + i) % ringPrices.length);
+                selectedEpochDays[i] = ringEpochDays[index];
+                selectedPrices[i] = ringPrices[index];
+            }
+            selected = true;
+        }
+    }
+
+    @Override
+    public void onError(int row, RowError error) {
+        errors.record(row, error);
+    }
+
+    /**
+     * Returns the number of rows decoded, rejected ones excluded.
+     *
+     * @return the number of rows
+     */
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the selected window.
+     *
+     * @return the window, or empty when there were not enough rows to select one
+     */
+    Optional<StockSeries> getWindow() {
+        return selected
+                ? Optional.of(StockSeries.of(id, selectedEpochDays.clone(), selectedPrices.clone()))
+                : Optional.empty();
+    }
+}
@@ -0,0 +1,27 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.File;
+
+/**
+ * Receives the sampled history and the predictions made for every input file. Implementations report their own
+ *  write failures and must be safe to call from several threads.
+ */
+public interface ResultSink extends AutoCloseable {
+
+    /**
+     * Writes the results of one input file.
+     *
+     * @param inputFile the file the history was sampled from
+     * @param history the sampled history
+     * @param predictions the predictions made from the history
+     */
+    void write(File inputFile, StockSeries history, StockSeries predictions);
+
+    /**
+     * Writes everything still pending and releases the resources of the sink.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,27 @@
+package org.com.stockpredictor.parsing;
+
+/**
+ * The reasons for which a CSV row can be rejected while parsing.
+ */
+public enum RowError {
+    INSUFFICIENT_COLUMNS("Unable to parse price row with index %s, due to insufficient data"),
+    EMPTY_ID("Unable to parse stock ID at row: %s, due to being empty"),
+    BAD_PRICE("Unable to parse price at row: %s"),
+    BAD_DATE("Unable to parse date time at row: %s");
+
+    private final String messageFormat;
+
+    RowError(String messageFormat) {
+        this.messageFormat = messageFormat;
+    }
+
+    /**
+     * Describes this error for the given row.
+     *
+     * @param row the row the error happened at
+     * @return a human-readable description of the error
+     */
+    public String describe(Object row) {
+        return String.format(messageFormat, row);
+    }
+}
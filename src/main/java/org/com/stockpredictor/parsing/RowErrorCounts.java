@@ -0,0 +1,86 @@
+package org.com.stockpredictor.parsing;
+
+import java.util.Locale;
+
+/**
+ * Counts the rows of a file rejected for every {@link RowError}, logging them according to a {@link RowLogging}
+ *  policy so that a file full of bad rows does not slow parsing down with synchronous writes to the error stream.
+ */
+public class RowErrorCounts {
+
+    /**
+     * Number of rejected rows of a file always logged when sampling.
+     */
+    public static final int LOGGED_ROWS = 10;
+
+    /**
+     * Once {@link #LOGGED_ROWS} rows were logged, one rejected row in this many is.
+     */
+    public static final int SAMPLING_INTERVAL = 1000;
+
+    private static final RowError[] ERRORS = RowError.values();
+
+    private final RowLogging rowLogging;
+    private final long[] counts = new long[ERRORS.length];
+    private long total;
+    private long logged;
+
+    public RowErrorCounts(RowLogging rowLogging) {
+        this.rowLogging = rowLogging;
+    }
+
+    /**
+     * Counts a rejected row, logging it if the policy says so.
+     *
+     * @param row the row the error happened at
+     * @param error the reason the row was rejected
+     */
+    public void record(Object row, RowError error) {
+        counts[error.ordinal()]++;
+        total++;
+        if (rowLogging == RowLogging.ALL
+                || rowLogging == RowLogging.SAMPLED
+                && (total <= LOGGED_ROWS || (total - LOGGED_ROWS) % SAMPLING_INTERVAL == 0)) {
+            System.err.println(error.describe(row));
+            logged++;
+        }
+    }
+
+    public long count(RowError error) {
+        return counts[error.ordinal()];
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Logs the counts of the file when some of its rejected rows were not logged.
+     *
+     * @param fileName the name of the file the rows were parsed from
+     */
+    void logSuppressed(String fileName) {
+        if (rowLogging == RowLogging.SAMPLED && logged < total) {
+            System.err.printf("Rejected %d rows of file: %s (%s), %d of them logged\n",
+                    total, fileName, this, logged);
+        }
+    }
+
+    /**
+     * Describes the non-zero counts, such as "bad price 3, bad date 1".
+     */
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (RowError error : ERRORS) {
+            if (counts[error.ordinal()] > 0) {
+                if (description.length() > 0) {
+                    description.append(", ");
+                }
+                description.append(error.name().replace('_', ' ').toLowerCase(Locale.ROOT))
+                        .append(' ').append(counts[error.ordinal()]);
+            }
+        }
+        return description.toString();
+    }
+}
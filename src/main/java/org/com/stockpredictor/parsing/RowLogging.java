@@ -0,0 +1,23 @@
+package org.com.stockpredictor.parsing;
+
+/**
+ * How the rows rejected while parsing are logged. Rejected rows are always counted, see {@link RowErrorCounts}.
+ */
+public enum RowLogging {
+
+    /**
+     * Every rejected row is logged.
+     */
+    ALL,
+
+    /**
+     * The first rejected rows of a file are logged, then one in {@link RowErrorCounts#SAMPLING_INTERVAL}, and the
+     *  file's counts are summarized once it is parsed.
+     */
+    SAMPLED,
+
+    /**
+     * Rejected rows are only counted.
+     */
+    NONE
+}
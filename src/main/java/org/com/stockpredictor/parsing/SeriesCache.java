@@ -0,0 +1,169 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.hash.Hashing;
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * An on-disk cache of parsed CSV files, holding one compact column file per source file: the epoch days and the
+ *  prices of its series. An entry is only used while the size and modification time of its source file are the ones
+ *  recorded when it was written; stale, truncated or corrupted entries are detected by their header and checksum,
+ *  deleted, and reported as a miss.
+ * <p>
+ * Entry layout, big-endian: magic, version, source size, source modification time in nanoseconds, source path length
+ *  and UTF-8 bytes, id length and UTF-8 bytes, point count, epoch days, prices, and a CRC32C of everything before it.
+ */
+public class SeriesCache {
+
+    private static final int MAGIC = 0x53504331;
+    private static final int VERSION = 1;
+    private static final String ENTRY_EXTENSION = ".series";
+
+    private final Path directory;
+
+    /**
+     * Creates a cache storing its entries in the given directory, which is created if needed.
+     *
+     * @param directory the cache directory
+     */
+    public SeriesCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Reads the cached series of a source file, by mapping its entry into memory.
+     *
+     * @param sourceFile the CSV file the series was parsed from
+     * @return the cached series, or empty when there is no valid entry for the current version of the file
+     */
+    public Optional<StockSeries> read(Path sourceFile) {
+        Path entry = entryPath(sourceFile);
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            BasicFileAttributes attributes = Files.readAttributes(sourceFile, BasicFileAttributes.class);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Optional<StockSeries> series = decode(buffer, sourceFile, attributes);
+            if (series.isEmpty()) {
+                Files.deleteIfExists(entry);
+            }
+            return series;
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("Unable to read cache entry for file: %s, with error: %s\n", sourceFile, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the series parsed from a source file to the cache, replacing any previous entry atomically.
+     *
+     * @param sourceFile the CSV file the series was parsed from
+     * @param attributes the attributes of the source file read before parsing it, so that an entry is never
+     *                   recorded for a newer version of the file than the one parsed
+     * @param series the parsed series
+     */
+    public void write(Path sourceFile, BasicFileAttributes attributes, StockSeries series) {
+        try {
+            ByteBuffer buffer = encode(sourceFile, attributes, series);
+            Files.createDirectories(directory);
+            Path temporaryEntry = Files.createTempFile(directory, "entry", ".tmp");
+            try (FileChannel channel = FileChannel.open(temporaryEntry, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporaryEntry, entryPath(sourceFile),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.printf("Unable to write cache entry for file: %s, with error: %s\n", sourceFile, e);
+        }
+    }
+
+    Path entryPath(Path sourceFile) {
+        String key = sourceFile.toAbsolutePath().normalize().toString();
+        return directory.resolve(Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + ENTRY_EXTENSION);
+    }
+
+    private static ByteBuffer encode(Path sourceFile, BasicFileAttributes attributes, StockSeries series) {
+        byte[] sourcePath = sourceKey(sourceFile);
+        byte[] id = series.getId().getBytes(StandardCharsets.UTF_8);
+        int size = series.size();
+        int length = 4 + 4 + 8 + 8 + 4 + sourcePath.length + 4 + id.length + 4
+                + size * Integer.BYTES + size * Double.BYTES + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(attributes.size())
+                .putLong(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS))
+                .putInt(sourcePath.length)
+                .put(sourcePath)
+                .putInt(id.length)
+                .put(id)
+                .putInt(size);
+        buffer.asIntBuffer().put(series.getEpochDays(), series.getOffset(), size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().put(series.getPrices(), series.getOffset(), size);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        buffer.putLong(checksum(buffer, buffer.position()));
+        return buffer.flip();
+    }
+
+    private static Optional<StockSeries> decode(ByteBuffer buffer, Path sourceFile, BasicFileAttributes attributes) {
+        if (buffer.remaining() < 4 + 4 + 8 + 8 + 4 + Long.BYTES
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION
+                || buffer.getLong() != attributes.size()
+                || buffer.getLong() != attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)) {
+            return Optional.empty();
+        }
+        int checksumPosition = buffer.limit() - Long.BYTES;
+        if (buffer.getLong(checksumPosition) != checksum(buffer, checksumPosition)) {
+            return Optional.empty();
+        }
+        byte[] sourcePath = new byte[buffer.getInt()];
+        buffer.get(sourcePath);
+        if (!ByteBuffer.wrap(sourcePath).equals(ByteBuffer.wrap(sourceKey(sourceFile)))) {
+            return Optional.empty();
+        }
+        byte[] id = new byte[buffer.getInt()];
+        buffer.get(id);
+        int size = buffer.getInt();
+        if (size < 0 || (long) size * (Integer.BYTES + Double.BYTES) != checksumPosition - buffer.position()) {
+            return Optional.empty();
+        }
+        int[] epochDays = new int[size];
+        double[] prices = new double[size];
+        buffer.asIntBuffer().get(epochDays);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().get(prices);
+        return Optional.of(StockSeries.of(new String(id, StandardCharsets.UTF_8), epochDays, prices));
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+
+    private static byte[] sourceKey(Path sourceFile) {
+        return sourceFile.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
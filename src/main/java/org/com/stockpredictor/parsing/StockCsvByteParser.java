@@ -0,0 +1,250 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockData;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Parses stock CSV rows straight from raw bytes, without allocating per row. Dates in the fixed "dd-MM-yyyy"
+ *  format are converted straight to epoch days and plain decimal prices straight to doubles; anything outside
+ *  these fast paths is handed to {@link LocalDate#parse} and {@link Double#parseDouble}, so the accepted rows are
+ *  the same as with {@link StockCsvParser}. Lines end with "\n", "\r" or "\r\n", like {@link java.io.BufferedReader}.
+ *  Input is always decoded as UTF-8, regardless of the platform charset.
+ * <p>
+ * The parser is stateful: it keeps the row count and line terminator state across calls so the input can be fed
+ *  buffer by buffer. An instance must only be used for a single input.
+ */
+public class StockCsvByteParser {
+
+    private static final byte COMMA = ',';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte LINE_FEED = '\n';
+    private static final int DAYS_0000_TO_1970 = 719528;
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final StockRowHandler handler;
+    private int row;
+    private boolean skipLineFeed;
+    private double parsedPrice;
+    private int parsedEpochDay;
+
+    public StockCsvByteParser(StockRowHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Returns the number of lines parsed so far, rejected ones included.
+     *
+     * @return the number of lines
+     */
+    public int getRows() {
+        return row;
+    }
+
+    /**
+     * Parses every complete line between the position and the limit of the buffer. The position is left at the start
+     *  of the trailing incomplete line, if any, so the caller can compact the buffer and read more input.
+     *
+     * @param buffer the buffer holding the input
+     */
+    public void parse(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int lineStart = buffer.position();
+        for (int i = lineStart; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (b == LINE_FEED) {
+                    lineStart = i + 1;
+                    continue;
+                }
+            }
+            if (b == LINE_FEED || b == CARRIAGE_RETURN) {
+                parseLine(buffer, lineStart, i);
+                skipLineFeed = b == CARRIAGE_RETURN;
+                lineStart = i + 1;
+            }
+        }
+        buffer.position(lineStart);
+    }
+
+    /**
+     * Parses the remaining input, treating whatever follows the last line terminator as the last line.
+     *
+     * @param buffer the buffer holding the end of the input
+     */
+    public void finish(ByteBuffer buffer) {
+        parse(buffer);
+        if (buffer.hasRemaining()) {
+            parseLine(buffer, buffer.position(), buffer.limit());
+            buffer.position(buffer.limit());
+        }
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end) {
+        row++;
+        int firstComma = indexOfComma(buffer, start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOfComma(buffer, firstComma + 1, end);
+        // String.split drops trailing empty columns, so a third column only counts when something non-empty follows
+        if (secondComma < 0 || !hasNonCommaByte(buffer, secondComma + 1, end)) {
+            handler.onError(row, RowError.INSUFFICIENT_COLUMNS);
+            return;
+        }
+        if (firstComma == start) {
+            handler.onError(row, RowError.EMPTY_ID);
+            return;
+        }
+        int thirdComma = indexOfComma(buffer, secondComma + 1, end);
+        if (!parsePrice(buffer, secondComma + 1, thirdComma < 0 ? end : thirdComma)) {
+            handler.onError(row, RowError.BAD_PRICE);
+            return;
+        }
+        if (!parseDate(buffer, firstComma + 1, secondComma)) {
+            handler.onError(row, RowError.BAD_DATE);
+            return;
+        }
+        handler.onRow(row, buffer, start, firstComma, parsedEpochDay, parsedPrice);
+    }
+
+    private static int indexOfComma(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == COMMA) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasNonCommaByte(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != COMMA) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses an optionally signed plain decimal number of at most 15 digits exactly, since both the digits and the
+     *  power of ten are exact doubles and the division is correctly rounded. Falls back to {@link Double#parseDouble}.
+     */
+    private boolean parsePrice(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenDot) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+        if (i == to && digits > 0 && digits <= MAX_FAST_PATH_DIGITS) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            parsedPrice = negative ? -value : value;
+            return true;
+        }
+        try {
+            parsedPrice = Double.parseDouble(decode(buffer, from, to));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a "dd-MM-yyyy" date straight to an epoch day, clamping the day to the length of the month like the
+     *  smart resolver of {@link StockData#TIMESTAMP_DATE_FORMATTER}. Falls back to {@link LocalDate#parse}.
+     */
+    private boolean parseDate(ByteBuffer buffer, int from, int to) {
+        if (to - from == 10 && buffer.get(from + 2) == '-' && buffer.get(from + 5) == '-') {
+            int day = twoDigits(buffer, from);
+            int month = twoDigits(buffer, from + 3);
+            int year = twoDigits(buffer, from + 6) * 100 + twoDigits(buffer, from + 8);
+            if (day >= 1 && day <= 31 && month >= 1 && month <= 12 && year >= 1) {
+                parsedEpochDay = epochDay(year, month, Math.min(day, monthLength(year, month)));
+                return true;
+            }
+        }
+        try {
+            parsedEpochDay = Math.toIntExact(
+                    LocalDate.parse(decode(buffer, from, to), StockData.TIMESTAMP_DATE_FORMATTER).toEpochDay());
+            return true;
+        } catch (DateTimeException | ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the value of two ASCII digits, or a negative number when they are not both digits.
+     */
+    private static int twoDigits(ByteBuffer buffer, int index) {
+        int tens = buffer.get(index) - '0';
+        int units = buffer.get(index + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -10000;
+        }
+        return tens * 10 + units;
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Computes the epoch day of a valid date with a positive year, using the same arithmetic as
+     *  {@link LocalDate#toEpochDay()}.
+     */
+    static int epochDay(int year, int month, int day) {
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -6,11 +6,25 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.com.stockpredictor.exception.InsufficientStockDataException;
 import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockSeries;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
@@ -25,7 +39,40 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 public class StockCsvParser {
 
     private final Random random;
-    private static final int REQUIRED_SIZE = 10;
+    private final InputMode inputMode;
+
+    /**
+     * Cache of parsed series, or null to always parse the CSV files.
+     */
+    private final SeriesCache seriesCache;
+
+    /**
+     * How the rows rejected while parsing are logged.
+     */
+    private final RowLogging rowLogging;
+
+    /**
+     * Listener notified of every parsed file, or null.
+     */
+    private final ParseListener parseListener;
+
+    /**
+     * Number of consecutive data points a prediction is made from.
+     */
+    public static final int REQUIRED_SIZE = 10;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public StockCsvParser(Random random) {
+        this(random, InputMode.READER);
+    }
+
+    public StockCsvParser(Random random, InputMode inputMode) {
+        this(random, inputMode, null);
+    }
+
+    public StockCsvParser(Random random, InputMode inputMode, SeriesCache seriesCache) {
+        this(random, inputMode, seriesCache, RowLogging.SAMPLED, null);
+    }
 
     /**
      * Extracts a number of consecutive stock data rows from a given CSV files starting from a random one.
@@ -35,8 +82,11 @@ public class StockCsvParser {
      * @throws InsufficientStockDataException when we cannot find sufficient data in order to make a prediction.
      */
     public List<StockData> extractRandomConsecutiveStockData(File file) throws InsufficientStockDataException {
+        if (isCompressed(file)) {
+            return sampleCompressedWindow(file).toStockDataList();
+        }
         List<StockData> allStockData = extractAllStockData(file);
-        if (allStockData.size() >= REQUIRED_SIZE) {
+        if (allStockData.size() > REQUIRED_SIZE) {
             int randomIndex = random.nextInt(allStockData.size() - REQUIRED_SIZE);
             return allStockData.subList(randomIndex, randomIndex + REQUIRED_SIZE);
         } else {
@@ -45,35 +95,316 @@ public class StockCsvParser {
     }
 
     /**
-     * Parses the CSV file line by line, ignoring rows that cannot be parsed.
+     * Extracts a number of consecutive stock data rows starting from a random position in the given CSV file, without
+     *  parsing the whole file. A random byte offset is picked, the reader moves to the next line boundary and only
+     *  the rows needed for the window are parsed. When the offset falls too close to the end of the file to fill
+     *  the window, it falls back to {@link #extractRandomConsecutiveStockData(File)}. Compressed files cannot be
+     *  seeked into, so their window is sampled in a single pass over the decompressed rows instead.
+     *
+     * @param file the given file
+     * @return the random consecutive stock data rows
+     * @throws InsufficientStockDataException when we cannot find sufficient data in order to make a prediction.
+     */
+    public List<StockData> extractRandomConsecutiveStockDataBySeeking(File file) throws InsufficientStockDataException {
+        long fileLength = file.length();
+        if (fileLength == 0 || isCompressed(file)) {
+            return extractRandomConsecutiveStockData(file);
+        }
+        long offset = random.nextLong(fileLength);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Start one byte early so that an offset which is already on a line start does not skip that line.
+            long readStart = Math.max(0, offset - 1);
+            BufferedReader bufferedReader = new BufferedReader(
+                    Channels.newReader(channel.position(readStart), StandardCharsets.UTF_8.newDecoder()
+                            .onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE), -1));
+            if (offset > 0) {
+                bufferedReader.readLine();
+            }
+            ImmutableList.Builder<StockData> window = ImmutableList.builderWithExpectedSize(REQUIRED_SIZE);
+            RowErrorCounts errors = new RowErrorCounts(rowLogging);
+            int found = 0;
+            int rowFromOffset = 0;
+            String line;
+            while (found < REQUIRED_SIZE && (line = bufferedReader.readLine()) != null) {
+                rowFromOffset++;
+                Optional<StockData> stockData =
+                        convertLine(rowFromOffset + " (from byte offset " + offset + ")", line, errors);
+                if (stockData.isPresent()) {
+                    window.add(stockData.get());
+                    found++;
+                }
+            }
+            errors.logSuppressed(file.getName());
+            if (found == REQUIRED_SIZE) {
+                return window.build();
+            }
+        } catch (IOException e) {
+            System.err.printf("Unable to seek in file: %s, with error: %s\n", file.getName(), e);
+        }
+        return extractRandomConsecutiveStockData(file);
+    }
+
+    /**
+     * Extracts a number of consecutive stock data points from a given CSV file starting from a random one, as a
+     *  window over the columnar series of the whole file. The window of a compressed file is sampled in a single
+     *  streaming pass instead, without keeping the other rows.
+     *
+     * @param file the given file
+     * @return the random consecutive stock data points
+     * @throws InsufficientStockDataException when we cannot find sufficient data in order to make a prediction.
+     */
+    public StockSeries extractRandomConsecutiveStockSeries(File file) throws InsufficientStockDataException {
+        if (isCompressed(file)) {
+            return sampleCompressedWindow(file);
+        }
+        return randomWindow(extractStockSeries(file));
+    }
+
+    /**
+     * Extracts a number of consecutive stock data points starting from a random one from the content of a CSV file
+     *  that was already read into memory, with the same distribution as
+     *  {@link #extractRandomConsecutiveStockSeries(File)}. Compressed content is decompressed on a separate thread
+     *  while it is parsed, and its window is picked in a single pass, as for a compressed file.
+     *
+     * @param file the file the content was read from, which is not read again
+     * @param content the raw bytes of the file
+     * @return the random consecutive stock data points
+     * @throws InsufficientStockDataException when we cannot find sufficient data in order to make a prediction.
+     */
+    public StockSeries extractRandomConsecutiveStockSeries(File file, byte[] content)
+            throws InsufficientStockDataException {
+        if (isCompressed(file)) {
+            RowErrorCounts errors = new RowErrorCounts(rowLogging);
+            ReservoirWindowCollector collector = new ReservoirWindowCollector(random, REQUIRED_SIZE, errors);
+            StockCsvByteParser byteParser = new StockCsvByteParser(collector);
+            try {
+                DecompressingCsvReader.read(new ByteArrayInputStream(content), Compression.of(file.getName()),
+                        file.getName(), byteParser);
+                parsed(file, content.length, byteParser.getRows(), errors);
+            } catch (IOException e) {
+                System.err.printf("Unable to read file: %s, with error: %s\n", file.getName(), e);
+            }
+            return collector.getWindow()
+                    .orElseThrow(() -> new InsufficientStockDataException("Could not find enough stock data"));
+        }
+        RowErrorCounts errors = new RowErrorCounts(rowLogging);
+        StockSeriesCollector collector = new StockSeriesCollector(errors);
+        StockCsvByteParser byteParser = new StockCsvByteParser(collector);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        byteParser.parse(buffer);
+        byteParser.finish(buffer);
+        parsed(file, content.length, byteParser.getRows(), errors);
+        return randomWindow(collector.build());
+    }
+
+    /**
+     * Extracts a number of consecutive stock data points starting from a random one from a CSV stream that cannot be
+     *  read twice, such as the standard input or a pipe. The window is picked in a single pass by a
+     *  {@link WindowSampler}, keeping only a window's worth of rows in memory.
+     *
+     * @param input the stream, which stays open
+     * @param name the name of the stream, used in error messages
+     * @return the random consecutive stock data points
+     * @throws InsufficientStockDataException when we cannot find sufficient data in order to make a prediction.
+     */
+    public StockSeries extractRandomConsecutiveStockSeries(InputStream input, String name)
+            throws InsufficientStockDataException {
+        RowErrorCounts errors = new RowErrorCounts(rowLogging);
+        ReservoirWindowCollector collector = new ReservoirWindowCollector(random, REQUIRED_SIZE, errors);
+        StockCsvByteParser byteParser = new StockCsvByteParser(collector);
+        try {
+            readThroughBuffer(Channels.newChannel(input), ByteBuffer.allocate(BUFFER_SIZE), byteParser);
+        } catch (IOException e) {
+            System.err.printf("Unable to read file: %s, with error: %s\n", name, e);
+        }
+        errors.logSuppressed(name);
+        return collector.getWindow()
+                .orElseThrow(() -> new InsufficientStockDataException("Could not find enough stock data"));
+    }
+
+    /**
+     * Parses the CSV file of a single stock into a columnar series, ignoring rows that cannot be parsed. The id of the
+     *  series is the id of the first parsed row. When the parser has a cache, an unchanged file is read back from it
+     *  without parsing, and a parsed file is added to it.
+     *
+     * @param file the specified file
+     * @return the parsed series
+     */
+    public StockSeries extractStockSeries(File file) {
+        if (seriesCache == null) {
+            return parseStockSeries(file);
+        }
+        Optional<StockSeries> cachedSeries = seriesCache.read(file.toPath());
+        if (cachedSeries.isPresent()) {
+            if (parseListener != null) {
+                parseListener.fileParsed(file, file.length(), cachedSeries.get().size(),
+                        new RowErrorCounts(rowLogging));
+            }
+            return cachedSeries.get();
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return parseStockSeries(file);
+        }
+        StockSeries series = parseStockSeries(file);
+        seriesCache.write(file.toPath(), attributes, series);
+        return series;
+    }
+
+    private StockSeries parseStockSeries(File file) {
+        if (inputMode == InputMode.READER && !isCompressed(file)) {
+            return StockSeries.fromStockData(extractAllStockDataFromReader(file));
+        }
+        RowErrorCounts errors = new RowErrorCounts(rowLogging);
+        StockSeriesCollector collector = new StockSeriesCollector(errors);
+        parseBytes(file, collector, errors);
+        return collector.build();
+    }
+
+    /**
+     * Parses the CSV file using the parser's input mode, ignoring rows that cannot be parsed.
      *
      * @param file the specified file
      * @return the parsed list of stock data.
      */
     List<StockData> extractAllStockData(File file) {
-        try {
-            BufferedReader bufferedReader = new BufferedReader(new FileReader(file));
+        if (inputMode == InputMode.READER && !isCompressed(file)) {
+            return extractAllStockDataFromReader(file);
+        }
+        RowErrorCounts errors = new RowErrorCounts(rowLogging);
+        StockDataCollector collector = new StockDataCollector(errors);
+        parseBytes(file, collector, errors);
+        return collector.build();
+    }
+
+    /**
+     * Parses the CSV file line by line, ignoring rows that cannot be parsed.
+     *
+     * @param file the specified file
+     * @return the parsed list of stock data.
+     */
+    private List<StockData> extractAllStockDataFromReader(File file) {
+        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
             List<String> lines = bufferedReader.lines().collect(toImmutableList());
-            return Streams.zip(IntStream.range(1, lines.size() + 1).boxed(), lines.stream(), this::convertLine)
+            RowErrorCounts errors = new RowErrorCounts(rowLogging);
+            List<StockData> stockData = Streams.zip(IntStream.range(1, lines.size() + 1).mapToObj(Integer::toString),
+                            lines.stream(), (index, line) -> convertLine(index, line, errors))
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .collect(toImmutableList());
+            parsed(file, file.length(), lines.size(), errors);
+            return stockData;
         } catch (FileNotFoundException e) {
             System.err.printf("Could not find file: %s, with error: %s\n", file.getName(), e);
             return ImmutableList.of();
+        } catch (IOException e) {
+            System.err.printf("Unable to read file: %s, with error: %s\n", file.getName(), e);
+            return ImmutableList.of();
+        }
+    }
+
+    /**
+     * Samples a random window of a compressed file in a single pass over its decompressed rows, with the same
+     *  distribution as {@link #extractRandomConsecutiveStockSeries(File)} over the whole series.
+     *
+     * @param file the compressed file
+     * @return the random consecutive stock data points
+     * @throws InsufficientStockDataException when we cannot find sufficient data in order to make a prediction.
+     */
+    private StockSeries sampleCompressedWindow(File file) throws InsufficientStockDataException {
+        RowErrorCounts errors = new RowErrorCounts(rowLogging);
+        ReservoirWindowCollector collector = new ReservoirWindowCollector(random, REQUIRED_SIZE, errors);
+        parseBytes(file, collector, errors);
+        return collector.getWindow()
+                .orElseThrow(() -> new InsufficientStockDataException("Could not find enough stock data"));
+    }
+
+    private StockSeries randomWindow(StockSeries allStockData) throws InsufficientStockDataException {
+        if (allStockData.size() > REQUIRED_SIZE) {
+            int randomIndex = random.nextInt(allStockData.size() - REQUIRED_SIZE);
+            return allStockData.window(randomIndex, REQUIRED_SIZE);
+        } else {
+            throw new InsufficientStockDataException("Could not find enough stock data");
+        }
+    }
+
+    private static boolean isCompressed(File file) {
+        Compression compression = Compression.of(file.getName());
+        return compression != null && compression != Compression.NONE;
+    }
+
+    /**
+     * Parses the raw bytes of the CSV file with a {@link StockCsvByteParser}, either read through a reused buffer or
+     *  memory-mapped depending on the parser's input mode. Compressed files are decompressed on a separate thread
+     *  whatever the input mode.
+     *
+     * @param file the specified file
+     * @param handler the handler receiving the parsed rows
+     * @param errors the counts of rejected rows the handler records to
+     */
+    private void parseBytes(File file, StockRowHandler handler, RowErrorCounts errors) {
+        StockCsvByteParser byteParser = new StockCsvByteParser(handler);
+        if (isCompressed(file)) {
+            try {
+                DecompressingCsvReader.read(file, Compression.of(file.getName()), byteParser);
+                parsed(file, file.length(), byteParser.getRows(), errors);
+            } catch (NoSuchFileException e) {
+                System.err.printf("Could not find file: %s, with error: %s\n", file.getName(), e);
+            } catch (IOException e) {
+                System.err.printf("Unable to read file: %s, with error: %s\n", file.getName(), e);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (inputMode == InputMode.MAPPED) {
+                MappedCsvReader.read(channel, byteParser, MappedCsvReader.DEFAULT_SEGMENT_SIZE);
+            } else {
+                readThroughBuffer(channel, ByteBuffer.allocate((int) Math.min(channel.size() + 1, BUFFER_SIZE)),
+                        byteParser);
+            }
+            parsed(file, channel.size(), byteParser.getRows(), errors);
+        } catch (NoSuchFileException e) {
+            System.err.printf("Could not find file: %s, with error: %s\n", file.getName(), e);
+        } catch (IOException e) {
+            System.err.printf("Unable to read file: %s, with error: %s\n", file.getName(), e);
+        }
+    }
+
+    private static void readThroughBuffer(ReadableByteChannel channel, ByteBuffer buffer, StockCsvByteParser byteParser)
+            throws IOException {
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            byteParser.parse(buffer);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                // a single line does not fit in the buffer
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+        buffer.flip();
+        byteParser.finish(buffer);
+    }
+
+    private void parsed(File file, long bytes, long rows, RowErrorCounts errors) {
+        errors.logSuppressed(file.getName());
+        if (parseListener != null) {
+            parseListener.fileParsed(file, bytes, rows, errors);
         }
     }
 
-    private Optional<StockData> convertLine(int index, String line) {
+    private Optional<StockData> convertLine(String index, String line, RowErrorCounts errors) {
         String[] values = line.split(",");
         if (values.length < 3) {
-            System.err.printf("Unable to parse price row with index %s, due to insufficient data\n", index);
+            errors.record(index, RowError.INSUFFICIENT_COLUMNS);
             return Optional.empty();
         }
 
         String stockId = values[0];
         if (stockId.isEmpty()) {
-            System.err.printf("Unable to parse stock ID at row: %s, due to being empty\n", index);
+            errors.record(index, RowError.EMPTY_ID);
             return Optional.empty();
         }
 
@@ -83,10 +414,10 @@ public class StockCsvParser {
              price = Double.parseDouble(values[2]);
              timestamp = LocalDate.parse(values[1], StockData.TIMESTAMP_DATE_FORMATTER);
         } catch (NumberFormatException e) {
-            System.err.printf("Unable to parse price at row: %s\n", index);
+            errors.record(index, RowError.BAD_PRICE);
             return Optional.empty();
         } catch (DateTimeParseException e) {
-            System.err.printf("Unable to parse date time at row: %s\n", index);
+            errors.record(index, RowError.BAD_DATE);
             return Optional.empty();
         }
 
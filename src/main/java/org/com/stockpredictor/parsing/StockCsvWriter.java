@@ -1,17 +1,48 @@
 package org.com.stockpredictor.parsing;
 
+import org.com.stockpredictor.model.EpochDayFormat;
 import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockSeries;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Handles writing of stock data predictions to CSV files.
+ * Handles writing of stock data predictions to CSV files. Rows are formatted straight into a reused byte buffer,
+ *  in the same format as {@link StockData#toCsvRow()}, and every file is written with a single channel write.
+ *  An instance is not thread-safe.
  */
 public class StockCsvWriter {
 
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+    private static final int MAX_FAST_PATH_DECIMALS = POWERS_OF_TEN.length - 1;
+    private static final long MAX_FAST_PATH_DIGITS_VALUE = 1_000_000_000_000_000L;
+
+    private final Path outputDirectory;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int size;
+    private String lastId;
+    private byte[] lastIdBytes;
+
+    /**
+     * Creates a writer writing its files in the given directory.
+     *
+     * @param outputDirectory the directory the files are written to
+     */
+    public StockCsvWriter(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
     /**
      * Writes the predicted stock data in a file located in a current folder.
      *
@@ -19,14 +50,192 @@ public class StockCsvWriter {
      * @param fileName the file name
      */
     public static void write(List<StockData> results, String fileName) {
-        try {
-            String csvContent = results.stream()
-                .map(StockData::toCsvRow)
-                .reduce("", String::concat);
-            Path filePath = Path.of("./" + fileName);
-            Files.writeString(filePath, csvContent);
+        new StockCsvWriter(Path.of(".")).write(fileName, results);
+    }
+
+    /**
+     * Writes the given stock data in a file of the output directory, replacing it if it exists.
+     *
+     * @param fileName the file name
+     * @param results the resulting stock data
+     */
+    public void write(String fileName, List<StockData> results) {
+        size = 0;
+        for (StockData stockData : results) {
+            appendRow(stockData.getId(), stockData.getEpochDay(), stockData.getPrice());
+        }
+        flush(fileName);
+    }
+
+    /**
+     * Writes the points of the given series, one after the other, in a file of the output directory, replacing it if
+     *  it exists.
+     *
+     * @param fileName the file name
+     * @param parts the series to write
+     */
+    public void write(String fileName, StockSeries... parts) {
+        appendAll(parts);
+        flush(fileName);
+    }
+
+    /**
+     * Writes the points of the given series, one after the other, to a stream such as the standard output.
+     *
+     * @param output the stream, which stays open
+     * @param parts the series to write
+     * @throws IOException when the stream cannot be written to
+     */
+    public void write(OutputStream output, StockSeries... parts) throws IOException {
+        appendAll(parts);
+        output.write(buffer, 0, size);
+        output.flush();
+    }
+
+    /**
+     * Formats the points of the given series, one after the other, without writing them.
+     *
+     * @param parts the series to format
+     * @return a read-only view of the formatted bytes, only valid until the next call to this writer
+     */
+    public ByteBuffer format(StockSeries... parts) {
+        appendAll(parts);
+        return ByteBuffer.wrap(buffer, 0, size).asReadOnlyBuffer();
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    private void appendAll(StockSeries... parts) {
+        size = 0;
+        for (StockSeries part : parts) {
+            for (int i = 0; i < part.size(); i++) {
+                appendRow(part.getId(), part.epochDayAt(i), part.priceAt(i));
+            }
+        }
+    }
+
+    private void flush(String fileName) {
+        Path filePath = outputDirectory.resolve(fileName);
+        try (FileChannel channel = FileChannel.open(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(buffer, 0, size);
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
         } catch (IOException e) {
             System.err.printf("Unable to write results for file: %s, with error: %s", fileName, e);
         }
     }
+
+    private void appendRow(String id, int epochDay, double price) {
+        appendId(id);
+        append((byte) ',');
+        appendDate(epochDay);
+        append((byte) ',');
+        appendPrice(price);
+        append((byte) '\n');
+    }
+
+    private void appendId(String id) {
+        if (!id.equals(lastId)) {
+            lastId = id;
+            lastIdBytes = id.getBytes(StandardCharsets.UTF_8);
+        }
+        ensureCapacity(lastIdBytes.length);
+        System.arraycopy(lastIdBytes, 0, buffer, size, lastIdBytes.length);
+        size += lastIdBytes.length;
+    }
+
+    private void appendDate(int epochDay) {
+        if (EpochDayFormat.isTabulated(epochDay)) {
+            ensureCapacity(EpochDayFormat.LENGTH);
+            EpochDayFormat.copyTo(epochDay, buffer, size);
+            size += EpochDayFormat.LENGTH;
+            return;
+        }
+        LocalDate timestamp = LocalDate.ofEpochDay(epochDay);
+        int year = timestamp.getYear();
+        if (year < 1 || year > 9999) {
+            appendAscii(timestamp.format(StockData.TIMESTAMP_DATE_FORMATTER));
+            return;
+        }
+        appendDigits(timestamp.getDayOfMonth(), 2);
+        append((byte) '-');
+        appendDigits(timestamp.getMonthValue(), 2);
+        append((byte) '-');
+        appendDigits(year, 4);
+    }
+
+    /**
+     * Appends the price like {@link Double#toString(double)}. Prices in plain notation range that are exactly the
+     *  closest double to a decimal of at most 15 digits and 9 decimals are formatted directly from that decimal;
+     *  anything else goes through {@link Double#toString(double)}.
+     */
+    private void appendPrice(double price) {
+        double magnitude = Math.abs(price);
+        if (magnitude >= 1e-3 && magnitude < 1e7) {
+            for (int decimals = 0; decimals <= MAX_FAST_PATH_DECIMALS; decimals++) {
+                long scaled = Math.round(magnitude * POWERS_OF_TEN[decimals]);
+                if (scaled >= MAX_FAST_PATH_DIGITS_VALUE) {
+                    break;
+                }
+                if ((double) scaled / POWERS_OF_TEN[decimals] == magnitude) {
+                    if (price < 0) {
+                        append((byte) '-');
+                    }
+                    appendDecimal(scaled, decimals);
+                    return;
+                }
+            }
+        }
+        appendAscii(Double.toString(price));
+    }
+
+    private void appendDecimal(long scaled, int decimals) {
+        long integerPart = scaled / POWERS_OF_TEN[decimals];
+        appendDigits(integerPart, 1);
+        append((byte) '.');
+        if (decimals == 0) {
+            append((byte) '0');
+        } else {
+            appendDigits(scaled % POWERS_OF_TEN[decimals], decimals);
+        }
+    }
+
+    /**
+     * Appends a non-negative number, left-padded with zeros to the given minimum number of digits.
+     */
+    private void appendDigits(long value, int minimumDigits) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minimumDigits);
+        ensureCapacity(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void appendAscii(String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void append(byte value) {
+        ensureCapacity(1);
+        buffer[size++] = value;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.collect.ImmutableList;
+import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.TickerDictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Collects the rows decoded by a {@link StockCsvByteParser} into {@link StockData}, counting the rejected rows.
+ *  The id of a row is only looked up in the {@link TickerDictionary} when it differs from the id of the previous row.
+ */
+class StockDataCollector implements StockRowHandler {
+
+    private final ImmutableList.Builder<StockData> stockData = ImmutableList.builder();
+    private final RowErrorCounts errors;
+    private byte[] lastIdBytes;
+    private int lastTickerCode;
+
+    StockDataCollector() {
+        this(new RowErrorCounts(RowLogging.ALL));
+    }
+
+    StockDataCollector(RowErrorCounts errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public void onRow(int row, ByteBuffer buffer, int idStart, int idEnd, int epochDay, double price) {
+        stockData.add(StockData.ofTickerCode(tickerCode(buffer, idStart, idEnd), epochDay, price));
+    }
+
+    @Override
+    public void onError(int row, RowError error) {
+        errors.record(row, error);
+    }
+
+    List<StockData> build() {
+        return stockData.build();
+    }
+
+    private int tickerCode(ByteBuffer buffer, int idStart, int idEnd) {
+        int length = idEnd - idStart;
+        if (lastIdBytes != null && length == lastIdBytes.length && sameBytes(buffer, idStart, length)) {
+            return lastTickerCode;
+        }
+        lastIdBytes = new byte[length];
+        buffer.get(idStart, lastIdBytes);
+        lastTickerCode = TickerDictionary.codeOf(new String(lastIdBytes, StandardCharsets.UTF_8));
+        return lastTickerCode;
+    }
+
+    private boolean sameBytes(ByteBuffer buffer, int from, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(from + i) != lastIdBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package org.com.stockpredictor.parsing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the rows decoded by a {@link StockCsvByteParser}. The buffer passed to {@link #onRow} is only valid for
+ *  the duration of the call, so implementations must copy out the id bytes they want to keep.
+ */
+public interface StockRowHandler {
+
+    /**
+     * Called for every row that could be parsed.
+     *
+     * @param row the 1-based index of the row in the input
+     * @param buffer the buffer holding the row
+     * @param idStart the absolute index of the first byte of the stock id in the buffer
+     * @param idEnd the absolute index after the last byte of the stock id in the buffer
+     * @param epochDay the date of the row, as a number of days since 1970-01-01
+     * @param price the price of the row
+     */
+    void onRow(int row, ByteBuffer buffer, int idStart, int idEnd, int epochDay, double price);
+
+    /**
+     * Called for every row that was rejected.
+     *
+     * @param row the 1-based index of the row in the input
+     * @param error the reason the row was rejected
+     */
+    void onError(int row, RowError error);
+}
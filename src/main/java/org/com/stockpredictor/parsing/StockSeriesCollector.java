@@ -0,0 +1,43 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Collects the rows decoded by a {@link StockCsvByteParser} into a {@link StockSeries}, counting the rejected rows.
+ *  The id of the series is decoded once, from the first row.
+ */
+class StockSeriesCollector implements StockRowHandler {
+
+    private final RowErrorCounts errors;
+    private StockSeries.Builder builder;
+
+    StockSeriesCollector() {
+        this(new RowErrorCounts(RowLogging.ALL));
+    }
+
+    StockSeriesCollector(RowErrorCounts errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public void onRow(int row, ByteBuffer buffer, int idStart, int idEnd, int epochDay, double price) {
+        if (builder == null) {
+            byte[] idBytes = new byte[idEnd - idStart];
+            buffer.get(idStart, idBytes);
+            builder = StockSeries.builder(new String(idBytes, StandardCharsets.UTF_8));
+        }
+        builder.add(epochDay, price);
+    }
+
+    @Override
+    public void onError(int row, RowError error) {
+        errors.record(row, error);
+    }
+
+    StockSeries build() {
+        return builder == null ? StockSeries.empty() : builder.build();
+    }
+}
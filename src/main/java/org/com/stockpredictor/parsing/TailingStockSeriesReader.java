@@ -0,0 +1,100 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Follows a CSV file that grows by appended rows. Every call to {@link #readAppended()} parses only the bytes added
+ *  since the previous call and extends the series with them. Only complete lines are parsed, so a row that is still
+ *  being written is picked up once its line terminator is. When the file shrinks or is replaced by another file, it
+ *  is parsed again from the start.
+ */
+public class TailingStockSeriesReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private StockSeriesCollector collector;
+    private StockCsvByteParser byteParser;
+    private StockSeries series;
+    private Object fileKey;
+    private long offset;
+
+    public TailingStockSeriesReader(Path file) {
+        this.file = file;
+        reset(null);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the series parsed so far.
+     *
+     * @return the series
+     */
+    public StockSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Returns the number of bytes of the file parsed so far.
+     *
+     * @return the offset of the first byte not parsed yet
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Parses the complete lines appended to the file since the previous call.
+     *
+     * @return true when the series changed
+     * @throws IOException when the file cannot be read
+     */
+    public boolean readAppended() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        boolean replaced = attributes.size() < offset || !Objects.equals(attributes.fileKey(), fileKey);
+        if (replaced) {
+            reset(attributes.fileKey());
+        }
+        if (attributes.size() == offset) {
+            return replaced;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size() - offset + 1, BUFFER_SIZE));
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                byteParser.parse(buffer);
+                offset += buffer.position();
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    // a single line does not fit in the buffer
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+        }
+        // The trailing incomplete line, if any, is read again on the next call.
+        StockSeries previous = series;
+        series = collector.build();
+        return replaced || series.size() != previous.size();
+    }
+
+    private void reset(Object newFileKey) {
+        collector = new StockSeriesCollector(new RowErrorCounts(RowLogging.SAMPLED));
+        byteParser = new StockCsvByteParser(collector);
+        series = StockSeries.empty();
+        fileKey = newFileKey;
+        offset = 0;
+    }
+}
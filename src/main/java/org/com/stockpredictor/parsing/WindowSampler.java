@@ -0,0 +1,71 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Picks a uniformly random window of consecutive rows in a single pass over rows whose number is not known in advance,
+ *  keeping only a window's worth of rows in memory. The rows are kept in a ring one row longer than the window, and
+ *  every window replaces the previous selection with probability one over the number of windows seen so far.
+ *
+ * <p>The distribution matches {@link StockCsvParser#extractRandomConsecutiveStockData}, which picks the start of the
+ *  window with {@code random.nextInt(size - windowLength)}: every start is equally likely, except the start of the
+ *  window ending at the last row, which is never picked. A window therefore only becomes a candidate once the row
+ *  following it was read. The random values drawn differ, so the same seed does not pick the same window.
+ */
+public final class WindowSampler {
+
+    private WindowSampler() {
+    }
+
+    /**
+     * Picks a random window of consecutive rows.
+     *
+     * @param rows the rows, read once
+     * @param windowLength the number of rows of the window
+     * @param random the random generator
+     * @param <T> the type of the rows
+     * @return the rows of the window, or empty when there are not more rows than the window length
+     */
+    public static <T> Optional<List<T>> sample(Iterator<T> rows, int windowLength, Random random) {
+        Object[] ring = new Object[windowLength + 1];
+        Object[] selected = null;
+        long read = 0;
+        while (rows.hasNext()) {
+            ring[(int) (read % ring.length)] = rows.next();
+            read++;
+            long windowStart = read - ring.length;
+            if (windowStart >= 0 && selects(random, windowStart)) {
+                selected = selected == null ? new Object[windowLength] : selected;
+                for (int i = 0; i < windowLength; i++) {
+                    selected[i] = ring[(int) ((windowStart + i) % ring.length)];
+                }
+            }
+        }
+        if (selected == null) {
+            return Optional.empty();
+        }
+        ImmutableList.Builder<T> window = ImmutableList.builderWithExpectedSize(windowLength);
+        for (Object row : selected) {
+            @SuppressWarnings("unchecked")
+            T typedRow = (T) row;
+            window.add(typedRow);
+        }
+        return Optional.of(window.build());
+    }
+
+    /**
+     * Tells whether the window starting at the given row replaces the current selection.
+     *
+     * @param random the random generator
+     * @param windowStart the index of the first row of the window, which is also the number of windows seen before
+     * @return true with probability {@code 1 / (windowStart + 1)}
+     */
+    static boolean selects(Random random, long windowStart) {
+        return random.nextLong(windowStart + 1) == 0;
+    }
+}
@@ -0,0 +1,226 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.ResultSink;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.parsing.TailingStockSeriesReader;
+import org.com.stockpredictor.prediction.PredictionStrategies;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the exchange folders and keeps the predictions up to date as the CSV files grow. Every tracked file keeps
+ *  the byte offset it was parsed up to, so an appended file only has its new rows parsed, and only the prediction of
+ *  that file is recomputed and written again. The prediction of a file is made from its latest window, the one the
+ *  appended rows change.
+ */
+public class ExchangeWatcher implements AutoCloseable {
+
+    private final Path exchangesFolder;
+    private final int maxFilesPerExchange;
+    private final ResultSink resultSink;
+    private final PredictionStrategy strategy;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, TailingStockSeriesReader> trackedFiles = new HashMap<>();
+    private final Map<Path, Integer> trackedFilesPerExchange = new HashMap<>();
+
+    /**
+     * Creates a watcher over the given exchanges folder, predicting with the default strategy.
+     *
+     * @param exchangesFolder the path to the directory containing the exchange folders
+     * @param maxFilesPerExchange the maximum number of files tracked per exchange
+     * @param resultSink the sink the predictions are written to
+     * @throws IOException when the file system cannot be watched
+     */
+    public ExchangeWatcher(Path exchangesFolder, int maxFilesPerExchange, ResultSink resultSink) throws IOException {
+        this(exchangesFolder, maxFilesPerExchange, resultSink, PredictionStrategies.getDefault());
+    }
+
+    /**
+     * Creates a watcher over the given exchanges folder.
+     *
+     * @param exchangesFolder the path to the directory containing the exchange folders
+     * @param maxFilesPerExchange the maximum number of files tracked per exchange
+     * @param resultSink the sink the predictions are written to
+     * @param strategy the strategy predicting from the latest window of every file
+     * @throws IOException when the file system cannot be watched
+     */
+    public ExchangeWatcher(Path exchangesFolder, int maxFilesPerExchange, ResultSink resultSink,
+                           PredictionStrategy strategy) throws IOException {
+        this.exchangesFolder = exchangesFolder;
+        this.maxFilesPerExchange = maxFilesPerExchange;
+        this.resultSink = resultSink;
+        this.strategy = strategy;
+        this.watchService = exchangesFolder.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Starts watching the exchanges folder, parses the files of every exchange and writes their predictions.
+     *
+     * @return the number of predictions written
+     * @throws IOException when the exchanges folder cannot be watched
+     */
+    public int start() throws IOException {
+        watchedDirectories.put(register(exchangesFolder), exchangesFolder);
+        int predicted = 0;
+        try (Stream<Path> exchangeDirectories = Files.list(exchangesFolder)) {
+            for (Path exchangeDirectory : (Iterable<Path>) exchangeDirectories.filter(Files::isDirectory)::iterator) {
+                predicted += watchExchange(exchangeDirectory);
+            }
+        }
+        return predicted;
+    }
+
+    /**
+     * Waits for changes in the exchange folders and updates the predictions of the changed files. The events already
+     *  queued are handled together, so a file changed many times is parsed and predicted once.
+     *
+     * @param timeout how long to wait for a first change
+     * @param unit the unit of the timeout
+     * @return the number of predictions written
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public int pollChanges(long timeout, TimeUnit unit) throws InterruptedException {
+        WatchKey key = watchService.poll(timeout, unit);
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        int predicted = 0;
+        while (key != null) {
+            Path directory = watchedDirectories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost, so every tracked file is checked.
+                    changedFiles.addAll(trackedFiles.keySet());
+                    continue;
+                }
+                Path path = directory.resolve((Path) event.context());
+                if (directory.equals(exchangesFolder)) {
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        predicted += watchExchange(path);
+                    } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        trackedFiles.keySet().removeIf(file -> file.getParent().equals(path));
+                        trackedFilesPerExchange.remove(path);
+                    }
+                } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    untrack(path);
+                } else if (path.toString().endsWith(".csv")) {
+                    changedFiles.add(path);
+                }
+            }
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+            key = watchService.poll();
+        }
+        for (Path file : changedFiles) {
+            TailingStockSeriesReader reader = trackedFiles.get(file);
+            if (reader == null) {
+                reader = track(file);
+            }
+            if (reader != null && update(reader)) {
+                predicted++;
+            }
+        }
+        return predicted;
+    }
+
+    /**
+     * Updates the predictions as the files change, until the thread is interrupted or the watcher closed.
+     */
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                pollChanges(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed from another thread
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private int watchExchange(Path exchangeDirectory) {
+        int predicted = 0;
+        try {
+            watchedDirectories.put(register(exchangeDirectory), exchangeDirectory);
+            try (Stream<Path> files = Files.list(exchangeDirectory)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)
+                        .filter(path -> path.toString().endsWith(".csv"))::iterator) {
+                    TailingStockSeriesReader reader = track(file);
+                    if (reader != null && update(reader)) {
+                        predicted++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.printf("Unable to watch exchange folder: %s, with error: %s\n", exchangeDirectory, e);
+        }
+        return predicted;
+    }
+
+    private WatchKey register(Path directory) throws IOException {
+        return directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private TailingStockSeriesReader track(Path file) {
+        Path exchangeDirectory = file.getParent();
+        int exchangeFiles = trackedFilesPerExchange.getOrDefault(exchangeDirectory, 0);
+        if (exchangeFiles >= maxFilesPerExchange) {
+            return null;
+        }
+        TailingStockSeriesReader reader = new TailingStockSeriesReader(file);
+        trackedFiles.put(file, reader);
+        trackedFilesPerExchange.put(exchangeDirectory, exchangeFiles + 1);
+        return reader;
+    }
+
+    private void untrack(Path file) {
+        if (trackedFiles.remove(file) != null) {
+            trackedFilesPerExchange.merge(file.getParent(), -1, Integer::sum);
+        }
+    }
+
+    /**
+     * Parses the rows appended to a file and writes its prediction again if its series changed.
+     *
+     * @return true when a prediction was written
+     */
+    private boolean update(TailingStockSeriesReader reader) {
+        try {
+            if (!reader.readAppended()) {
+                return false;
+            }
+        } catch (IOException e) {
+            System.err.printf("Unable to read file: %s, with error: %s\n", reader.getFile().getFileName(), e);
+            return false;
+        }
+        StockSeries series = reader.getSeries();
+        if (series.size() < StockCsvParser.REQUIRED_SIZE) {
+            return false;
+        }
+        StockSeries latestWindow = series.window(series.size() - StockCsvParser.REQUIRED_SIZE,
+                StockCsvParser.REQUIRED_SIZE);
+        resultSink.write(reader.getFile().toFile(), latestWindow, strategy.predict(latestWindow));
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.parsing.Compression;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the CSV files, compressed or not, of every exchange directory and streams them to the consumer as soon as they are found, so that
+ *  processing starts before the walk finishes. The exchange directories are listed in parallel on a work-stealing
+ *  pool. At most the given number of files are taken from every exchange, in directory order, and only those
+ *  belonging to the given {@link Shard} are streamed; since every process lists the same files, several processes
+ *  with different shards split a run without overlap, each staying within the limit per exchange.
+ */
+public class FileDiscovery implements Iterable<File>, AutoCloseable {
+
+    private static final File END_OF_FILES = new File("");
+
+    private final Path exchangesFolder;
+    private final int maxFilesPerExchange;
+    private final Shard shard;
+    private final ForkJoinPool pool;
+    private final BlockingQueue<File> discoveredFiles = new LinkedBlockingQueue<>();
+    private final AtomicInteger discoveredCount = new AtomicInteger();
+    private boolean started;
+
+    /**
+     * Creates a discovery over the given exchanges folder, started when first iterated.
+     *
+     * @param exchangesFolder the path to the directory containing the exchange folders
+     * @param maxFilesPerExchange the maximum number of files taken from every exchange, before sharding
+     * @param shard the shard whose files are streamed
+     * @param threads the number of threads listing the exchange directories
+     */
+    public FileDiscovery(Path exchangesFolder, int maxFilesPerExchange, Shard shard, int threads) {
+        this.exchangesFolder = exchangesFolder;
+        this.maxFilesPerExchange = maxFilesPerExchange;
+        this.shard = shard;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Returns the number of files streamed so far, which is the total once the iteration is over.
+     *
+     * @return the number of files
+     */
+    public int getDiscoveredCount() {
+        return discoveredCount.get();
+    }
+
+    /**
+     * Starts the discovery and returns the files as they are found. The iterator blocks until the next file is found
+     *  or the discovery finishes, and can only be requested once.
+     */
+    @Override
+    public synchronized Iterator<File> iterator() {
+        if (started) {
+            throw new IllegalStateException("The files can only be iterated once");
+        }
+        started = true;
+        pool.execute(this::discover);
+        return new Iterator<>() {
+            private File next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = discoveredFiles.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        next = END_OF_FILES;
+                    }
+                }
+                return next != END_OF_FILES;
+            }
+
+            @Override
+            public File next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                File file = next;
+                next = null;
+                return file;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private void discover() {
+        try (DirectoryStream<Path> exchangeDirectories = Files.newDirectoryStream(exchangesFolder, Files::isDirectory)) {
+            List<ForkJoinTask<?>> listings = new ArrayList<>();
+            for (Path exchangeDirectory : exchangeDirectories) {
+                listings.add(ForkJoinTask.adapt(() -> discoverExchange(exchangeDirectory)).fork());
+            }
+            listings.forEach(ForkJoinTask::join);
+        } catch (IOException | DirectoryIteratorException e) {
+            System.err.printf("Unexpected I/O exception: %s\n", e.getMessage());
+        } finally {
+            discoveredFiles.add(END_OF_FILES);
+        }
+    }
+
+    private void discoverExchange(Path exchangeDirectory) {
+        String exchange = exchangeDirectory.getFileName().toString();
+        int taken = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(exchangeDirectory,
+                path -> Compression.isCsv(path.getFileName().toString()) && Files.isRegularFile(path))) {
+            for (Path file : files) {
+                if (taken++ == maxFilesPerExchange) {
+                    return;
+                }
+                if (shard.contains(exchange, file.getFileName().toString())) {
+                    discoveredCount.incrementAndGet();
+                    discoveredFiles.add(file.toFile());
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            // failures while iterating the directory are reported unchecked, wrapping the I/O exception
+            System.err.printf("Unable to list the files of exchange: %s, with error: %s\n", exchange, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+
+import java.io.File;
+
+/**
+ * A unit of work applied to a single input file.
+ */
+@FunctionalInterface
+public interface FileTask {
+
+    /**
+     * Processes the given file.
+     *
+     * @param file the file to process
+     * @throws InsufficientStockDataException when the file does not hold enough data to be processed
+     */
+    void process(File file) throws InsufficientStockDataException;
+}
@@ -0,0 +1,95 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link FileTask} over many files on an executor, keeping a bounded number of files in flight so that
+ *  memory stays bounded regardless of how many files are submitted. A failure on one file does not affect the others.
+ */
+public class ParallelFileProcessor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final int maxFilesInFlight;
+
+    /**
+     * Creates a processor backed by a fixed pool of the given number of threads.
+     *
+     * @param threads the number of worker threads
+     * @param maxFilesInFlight the maximum number of files submitted but not yet finished
+     */
+    public ParallelFileProcessor(int threads, int maxFilesInFlight) {
+        this(Executors.newFixedThreadPool(threads), maxFilesInFlight);
+    }
+
+    /**
+     * Creates a processor backed by the given executor, which is shut down when the processor is closed.
+     *
+     * @param executor the executor running the tasks
+     * @param maxFilesInFlight the maximum number of files submitted but not yet finished
+     */
+    public ParallelFileProcessor(ExecutorService executor, int maxFilesInFlight) {
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxFilesInFlight);
+        this.maxFilesInFlight = maxFilesInFlight;
+    }
+
+    /**
+     * Processes all the given files and waits for them to finish.
+     *
+     * @param files the files to process
+     * @param task the task applied to every file
+     * @return the number of files processed successfully
+     * @throws InterruptedException when interrupted while waiting for a free slot or for completion
+     */
+    public int process(Iterable<File> files, FileTask task) throws InterruptedException {
+        AtomicInteger succeeded = new AtomicInteger();
+        for (File file : files) {
+            inFlight.acquire();
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.process(file);
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockDataException e) {
+                        System.err.println(e.getMessage());
+                    } catch (RuntimeException e) {
+                        System.err.printf("Unable to process file: %s, with error: %s\n", file.getName(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+        // every finished task gives back its permit, so holding all of them means nothing is left running
+        inFlight.acquire(maxFilesInFlight);
+        inFlight.release(maxFilesInFlight);
+        return succeeded.get();
+    }
+
+    /**
+     * Shuts the executor down and waits for the running tasks to finish. When interrupted while waiting, the running
+     *  tasks are interrupted as well and the interrupt status of the current thread is restored.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
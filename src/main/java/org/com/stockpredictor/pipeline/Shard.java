@@ -0,0 +1,75 @@
+package org.com.stockpredictor.pipeline;
+
+import com.google.common.hash.Hashing;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One of several disjoint parts a run is split into, so that several processes can share the files of the exchanges
+ *  folder without overlap. A file belongs to a shard according to a hash of its exchange and file name, which does
+ *  not depend on the process computing it.
+ */
+@Value
+public class Shard {
+
+    /**
+     * The shard holding every file.
+     */
+    public static final Shard ALL = new Shard(0, 1);
+
+    /**
+     * Index of the shard, from 0 to {@link #count} excluded.
+     */
+    int index;
+
+    /**
+     * Number of shards the run is split into.
+     */
+    int count;
+
+    public Shard(int index, int count) {
+        if (count <= 0 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Parses a shard written as "index/count".
+     *
+     * @param value the shard
+     * @return the parsed shard
+     * @throws IllegalArgumentException when the value is not a valid shard
+     */
+    public static Shard parse(String value) {
+        int separator = value.indexOf('/');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid shard " + value + ", expected index/count");
+        }
+        try {
+            return new Shard(Integer.parseInt(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid shard " + value + ", expected index/count");
+        }
+    }
+
+    /**
+     * Tells whether a file belongs to this shard.
+     *
+     * @param exchange the name of the exchange directory of the file
+     * @param fileName the name of the file
+     * @return true when this shard processes the file
+     */
+    public boolean contains(String exchange, String fileName) {
+        if (count == 1) {
+            return true;
+        }
+        int hash = Hashing.murmur3_32_fixed()
+                .hashString(exchange + '/' + fileName, StandardCharsets.UTF_8)
+                .asInt();
+        return Math.floorMod(hash, count) == index;
+    }
+}
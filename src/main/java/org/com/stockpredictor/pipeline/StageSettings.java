@@ -0,0 +1,49 @@
+package org.com.stockpredictor.pipeline;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The sizing of a {@link StagedPipeline}: the number of threads of every stage, the capacity of the queues between
+ *  them and how many items a worker takes at once.
+ */
+@Value
+@Builder
+public class StageSettings {
+
+    /**
+     * Number of threads reading files into memory.
+     */
+    @Builder.Default
+    int readThreads = 2;
+
+    /**
+     * Number of threads parsing the read files and sampling their windows.
+     */
+    @Builder.Default
+    int parseThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of threads predicting from the sampled windows.
+     */
+    @Builder.Default
+    int predictThreads = 1;
+
+    /**
+     * Number of threads writing the results.
+     */
+    @Builder.Default
+    int writeThreads = 1;
+
+    /**
+     * Maximum number of items waiting in the input queue of every stage.
+     */
+    @Builder.Default
+    int queueCapacity = 64;
+
+    /**
+     * Maximum number of items a worker takes from its queue at once.
+     */
+    @Builder.Default
+    int batchSize = 16;
+}
@@ -0,0 +1,319 @@
+package org.com.stockpredictor.pipeline;
+
+import lombok.Value;
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+import org.com.stockpredictor.metrics.PipelineMetrics;
+import org.com.stockpredictor.metrics.Stage;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.ResultSink;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.com.stockpredictor.prediction.StockPredictor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Processes files through four stages, each with its own threads: reading a file into memory, parsing it and
+ *  sampling its window, predicting from the window, and writing the results. Stages are connected by bounded queues,
+ *  so a slow disk only holds back the stage using it while the others keep working, and a stage that falls behind
+ *  makes the ones before it wait instead of buffering without limit: at most the queued items and the batches being
+ *  worked on are in memory, whatever the number of files. Past the parse stage, an item only holds the points of its
+ *  window.
+ * <p>
+ * Workers take up to the configured batch size of items from their queue at once; the predict stage scores a whole
+ *  batch of windows with a single {@link PredictionStrategy#predictBatch(List, double[])} call. The depth of every
+ *  queue and the time spent waiting on it are reported to the {@link PipelineMetrics}. A failure on one file does not
+ *  affect the others.
+ */
+public class StagedPipeline {
+
+    private static final Object END = new Object();
+
+    private final StageSettings settings;
+    private final Function<File, StockCsvParser> parsers;
+    private final PredictionStrategy strategy;
+    private final ResultSink resultSink;
+    private final PipelineMetrics metrics;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param settings the threads, queue capacity and batch size of the stages
+     * @param parsers creates the parser of every file, holding the random generator its window is sampled with
+     * @param strategy the strategy predicting from the windows
+     * @param resultSink the sink the results are written to
+     * @param metrics the metrics the stages report to
+     */
+    public StagedPipeline(StageSettings settings, Function<File, StockCsvParser> parsers,
+                          PredictionStrategy strategy, ResultSink resultSink, PipelineMetrics metrics) {
+        this.settings = settings;
+        this.parsers = parsers;
+        this.strategy = strategy;
+        this.resultSink = resultSink;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Processes all the given files and waits for their results to be written.
+     *
+     * @param files the files to process
+     * @return the number of files whose results were written
+     * @throws InterruptedException when interrupted while submitting files or waiting for completion, in which case
+     *  the workers are interrupted too, as they are when iterating the files fails
+     */
+    public int process(Iterable<File> files) throws InterruptedException {
+        AtomicInteger written = new AtomicInteger();
+        StageWorkers<Predicted> write = new StageWorkers<>(Stage.WRITE, settings.getWriteThreads(), null,
+                batch -> writeResults(batch, written));
+        StageWorkers<Sampled> predict = new StageWorkers<>(Stage.PREDICT, settings.getPredictThreads(), write,
+                batch -> predict(batch, write));
+        StageWorkers<ReadFile> parse = new StageWorkers<>(Stage.PARSE, settings.getParseThreads(), predict,
+                batch -> parse(batch, predict));
+        StageWorkers<File> read = new StageWorkers<>(Stage.READ, settings.getReadThreads(), parse,
+                batch -> read(batch, parse));
+        List<StageWorkers<?>> stages = List.of(read, parse, predict, write);
+        stages.forEach(StageWorkers::start);
+        boolean completed = false;
+        try {
+            for (File file : files) {
+                read.put(file);
+            }
+            read.put(END);
+            write.awaitDone();
+            completed = true;
+        } finally {
+            if (!completed) {
+                stages.forEach(StageWorkers::interrupt);
+            }
+        }
+        return written.get();
+    }
+
+    private void read(List<File> files, StageWorkers<ReadFile> parse) throws InterruptedException {
+        for (File file : files) {
+            long start = System.nanoTime();
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                System.err.printf("Unable to read file: %s, with error: %s\n", file.getName(), e);
+                continue;
+            }
+            metrics.recordSince(Stage.READ, start);
+            parse.put(new ReadFile(file, content));
+        }
+    }
+
+    private void parse(List<ReadFile> readFiles, StageWorkers<Sampled> predict) throws InterruptedException {
+        for (ReadFile readFile : readFiles) {
+            File file = readFile.getFile();
+            long start = System.nanoTime();
+            StockSeries window;
+            try {
+                // compacted, so that queued items hold their window and not the whole parsed file
+                window = parsers.apply(file).extractRandomConsecutiveStockSeries(file, readFile.getContent())
+                        .compact();
+            } catch (InsufficientStockDataException e) {
+                System.err.println(e.getMessage());
+                continue;
+            } catch (RuntimeException e) {
+                System.err.printf("Unable to process file: %s, with error: %s\n", file.getName(), e);
+                continue;
+            }
+            metrics.recordSince(Stage.PARSE, start);
+            predict.put(new Sampled(file, window));
+        }
+    }
+
+    private void predict(List<Sampled> sampled, StageWorkers<Predicted> write) throws InterruptedException {
+        long start = System.nanoTime();
+        List<StockSeries> windows = new ArrayList<>(sampled.size());
+        for (Sampled item : sampled) {
+            windows.add(item.getWindow());
+        }
+        double[] predictions = new double[windows.size() * StockPredictor.PREDICTED_POINTS];
+        strategy.predictBatch(windows, predictions);
+        metrics.recordSince(Stage.PREDICT, start);
+        for (int i = 0; i < windows.size(); i++) {
+            StockSeries window = windows.get(i);
+            write.put(new Predicted(sampled.get(i).getFile(), window, predictionSeries(window, predictions, i)));
+        }
+    }
+
+    private void writeResults(List<Predicted> results, AtomicInteger written) {
+        for (Predicted result : results) {
+            long start = System.nanoTime();
+            resultSink.write(result.getFile(), result.getWindow(), result.getPredictions());
+            metrics.recordSince(Stage.WRITE, start);
+            written.incrementAndGet();
+        }
+    }
+
+    private static StockSeries predictionSeries(StockSeries window, double[] predictions, int index) {
+        int lastEpochDay = window.epochDayAt(window.size() - 1);
+        int[] epochDays = new int[StockPredictor.PREDICTED_POINTS];
+        for (int step = 0; step < epochDays.length; step++) {
+            epochDays[step] = lastEpochDay + step + 1;
+        }
+        int from = index * StockPredictor.PREDICTED_POINTS;
+        return StockSeries.of(window.getId(), epochDays,
+                Arrays.copyOfRange(predictions, from, from + StockPredictor.PREDICTED_POINTS));
+    }
+
+    /**
+     * Works on a batch of items taken from the input queue of a stage.
+     */
+    @FunctionalInterface
+    private interface BatchTask<T> {
+        void process(List<T> batch) throws InterruptedException;
+    }
+
+    /**
+     * The input queue and the worker threads of a stage. The end of the input is marked by a single {@link #END}
+     *  item, which every worker but the last puts back for the others before stopping; the last worker to stop passes
+     *  it on to the next stage. A worker killed by an error still stops that way, so the following stages finish;
+     *  when it was the last one, the stage is abandoned and the items still coming are dropped instead of blocking
+     *  the previous stage.
+     */
+    private final class StageWorkers<T> {
+
+        private final Stage stage;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        private final StageWorkers<?> next;
+        private final BatchTask<T> task;
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicInteger running;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean abandoned;
+
+        StageWorkers(Stage stage, int threadCount, StageWorkers<?> next, BatchTask<T> task) {
+            this.stage = stage;
+            this.next = next;
+            this.task = task;
+            this.running = new AtomicInteger(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                threads.add(new Thread(this::work, "stage-" + stage.name().toLowerCase(Locale.ROOT) + "-" + i));
+            }
+            metrics.monitorQueue(stage, queue);
+        }
+
+        void start() {
+            threads.forEach(Thread::start);
+        }
+
+        void interrupt() {
+            threads.forEach(Thread::interrupt);
+        }
+
+        void awaitDone() throws InterruptedException {
+            done.await();
+        }
+
+        /**
+         * Adds an item to the input queue, waiting for room when it is full, or drops it once the stage is abandoned.
+         */
+        void put(Object item) throws InterruptedException {
+            if (abandoned) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                long start = System.nanoTime();
+                queue.put(item);
+                metrics.recordStall(stage, System.nanoTime() - start);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void work() {
+            List<Object> taken = new ArrayList<>(settings.getBatchSize());
+            List<T> batch = new ArrayList<>(settings.getBatchSize());
+            boolean end = false;
+            try {
+                while (!end) {
+                    long waitStart = System.nanoTime();
+                    taken.add(queue.take());
+                    metrics.recordIdle(stage, System.nanoTime() - waitStart);
+                    queue.drainTo(taken, settings.getBatchSize() - 1);
+                    for (Object item : taken) {
+                        if (item == END) {
+                            end = true;
+                        } else {
+                            batch.add((T) item);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        processBatch(batch);
+                    }
+                    taken.clear();
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stop(end);
+            }
+        }
+
+        private void stop(boolean end) {
+            if (running.decrementAndGet() > 0) {
+                if (end) {
+                    // nothing follows the end marker, so there is room for it
+                    queue.offer(END);
+                }
+                return;
+            }
+            if (!end) {
+                abandoned = true;
+                queue.clear();
+            }
+            try {
+                if (next != null) {
+                    next.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void processBatch(List<T> batch) throws InterruptedException {
+            try {
+                task.process(batch);
+            } catch (RuntimeException e) {
+                System.err.printf("Unable to process %d files in stage %s, with error: %s\n",
+                        batch.size(), stage.name().toLowerCase(Locale.ROOT), e);
+            }
+        }
+    }
+
+    @Value
+    private static class ReadFile {
+        File file;
+        byte[] content;
+    }
+
+    @Value
+    private static class Sampled {
+        File file;
+        StockSeries window;
+    }
+
+    @Value
+    private static class Predicted {
+        File file;
+        StockSeries window;
+        StockSeries predictions;
+    }
+}
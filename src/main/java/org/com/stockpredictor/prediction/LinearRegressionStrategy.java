@@ -0,0 +1,150 @@
+package org.com.stockpredictor.prediction;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+/**
+ * Extrapolates the least-squares line through the prices of the window: the i-th price of the window is taken at
+ *  x = i, and the predictions are the values of the line at the following positions. A window of a single price
+ *  predicts that price.
+ * <p>
+ * With the positions centered on their mean, the slope is the sum of the centered positions times the prices over
+ *  the sum of the squared centered positions, and the line goes through the mean price. Batches are scored a block
+ *  of windows at a time: the windows are first copied column by column, so that the sums are then accumulated by
+ *  loops over contiguous arrays with independent iterations, which the JIT compiles to SIMD instructions.
+ */
+public class LinearRegressionStrategy implements PredictionStrategy {
+
+    public static final String NAME = "linear-regression";
+
+    private static final int BLOCK_SIZE = 256;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void predict(double[] prices, int offset, int length, double[] predictions, int predictionsOffset) {
+        double center = (length - 1) / 2d;
+        double sum = 0;
+        double centeredSum = 0;
+        for (int i = 0; i < length; i++) {
+            double price = prices[offset + i];
+            sum += price;
+            centeredSum += (i - center) * price;
+        }
+        write(sum / length, slope(centeredSum, length), length, predictions, predictionsOffset);
+    }
+
+    @Override
+    public void predict(DoubleBuffer prices, int offset, int length, double[] predictions, int predictionsOffset) {
+        if (prices.hasArray()) {
+            predict(prices.array(), prices.arrayOffset() + offset, length, predictions, predictionsOffset);
+            return;
+        }
+        double center = (length - 1) / 2d;
+        double sum = 0;
+        double centeredSum = 0;
+        for (int i = 0; i < length; i++) {
+            double price = prices.get(offset + i);
+            sum += price;
+            centeredSum += (i - center) * price;
+        }
+        write(sum / length, slope(centeredSum, length), length, predictions, predictionsOffset);
+    }
+
+    @Override
+    public void predictBatch(double[] prices, int[] windowOffsets, int windowLength, double[] predictions) {
+        Block block = new Block(windowLength);
+        for (int first = 0; first < windowOffsets.length; first += BLOCK_SIZE) {
+            int windows = Math.min(BLOCK_SIZE, windowOffsets.length - first);
+            for (int w = 0; w < windows; w++) {
+                block.copyWindow(w, prices, windowOffsets[first + w]);
+            }
+            block.score(windows, predictions, first);
+        }
+    }
+
+    @Override
+    public void predictBatch(List<StockSeries> windows, double[] predictions) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        int windowLength = windows.get(0).size();
+        for (StockSeries window : windows) {
+            if (window.size() != windowLength) {
+                PredictionStrategy.super.predictBatch(windows, predictions);
+                return;
+            }
+        }
+        Block block = new Block(windowLength);
+        for (int first = 0; first < windows.size(); first += BLOCK_SIZE) {
+            int blockWindows = Math.min(BLOCK_SIZE, windows.size() - first);
+            for (int w = 0; w < blockWindows; w++) {
+                StockSeries window = windows.get(first + w);
+                block.copyWindow(w, window.getPrices(), window.getOffset());
+            }
+            block.score(blockWindows, predictions, first);
+        }
+    }
+
+    private static double slope(double centeredSum, int length) {
+        // sum of (i - center)^2 for i from 0 to length - 1
+        double squaredSum = (double) (length - 1) * length * (length + 1) / 12;
+        return squaredSum > 0 ? centeredSum / squaredSum : 0;
+    }
+
+    private static void write(double mean, double slope, int length, double[] predictions, int predictionsOffset) {
+        double center = (length - 1) / 2d;
+        for (int step = 1; step <= StockPredictor.PREDICTED_POINTS; step++) {
+            predictions[predictionsOffset + step - 1] = mean + slope * (length - 1 + step - center);
+        }
+    }
+
+    /**
+     * The prices of a block of windows of the same length, stored column by column: the i-th price of every window
+     *  of the block is at {@code columns[i * BLOCK_SIZE + w]}.
+     */
+    private static final class Block {
+
+        private final int windowLength;
+        private final double[] columns;
+        private final double[] sums = new double[BLOCK_SIZE];
+        private final double[] centeredSums = new double[BLOCK_SIZE];
+
+        Block(int windowLength) {
+            this.windowLength = windowLength;
+            this.columns = new double[windowLength * BLOCK_SIZE];
+        }
+
+        void copyWindow(int w, double[] prices, int offset) {
+            for (int i = 0; i < windowLength; i++) {
+                columns[i * BLOCK_SIZE + w] = prices[offset + i];
+            }
+        }
+
+        void score(int windows, double[] predictions, int firstWindow) {
+            double center = (windowLength - 1) / 2d;
+            for (int w = 0; w < windows; w++) {
+                sums[w] = 0;
+                centeredSums[w] = 0;
+            }
+            for (int i = 0; i < windowLength; i++) {
+                int column = i * BLOCK_SIZE;
+                double centered = i - center;
+                for (int w = 0; w < windows; w++) {
+                    double price = columns[column + w];
+                    sums[w] += price;
+                    centeredSums[w] += centered * price;
+                }
+            }
+            for (int w = 0; w < windows; w++) {
+                write(sums[w] / windowLength, slope(centeredSums[w], windowLength), windowLength, predictions,
+                        (firstWindow + w) * StockPredictor.PREDICTED_POINTS);
+            }
+        }
+    }
+}
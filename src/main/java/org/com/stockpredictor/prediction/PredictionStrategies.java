@@ -0,0 +1,55 @@
+package org.com.stockpredictor.prediction;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ServiceLoader;
+
+/**
+ * Finds the {@link PredictionStrategy} implementations available on the class path by name. Every strategy is
+ *  instantiated once and shared.
+ */
+public final class PredictionStrategies {
+
+    /**
+     * Name of the strategy used when none is chosen.
+     */
+    public static final String DEFAULT = SecondHighestStrategy.NAME;
+
+    private static final ImmutableMap<String, PredictionStrategy> STRATEGIES = load();
+
+    private PredictionStrategies() {
+    }
+
+    /**
+     * Returns the strategy of the given name.
+     *
+     * @param name the name of the strategy
+     * @return the strategy
+     * @throws IllegalArgumentException when no strategy has that name
+     */
+    public static PredictionStrategy forName(String name) {
+        PredictionStrategy strategy = STRATEGIES.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException(
+                    "Unknown prediction strategy " + name + ", available strategies: " + STRATEGIES.keySet());
+        }
+        return strategy;
+    }
+
+    /**
+     * Returns the strategy used when none is chosen.
+     *
+     * @return the default strategy
+     */
+    public static PredictionStrategy getDefault() {
+        return forName(DEFAULT);
+    }
+
+    private static ImmutableMap<String, PredictionStrategy> load() {
+        ImmutableMap.Builder<String, PredictionStrategy> strategies = ImmutableMap.builder();
+        for (PredictionStrategy strategy : ServiceLoader.load(PredictionStrategy.class)) {
+            strategies.put(strategy.getName(), strategy);
+        }
+        return strategies.buildOrThrow();
+    }
+}
@@ -0,0 +1,104 @@
+package org.com.stockpredictor.prediction;
+
+import org.com.stockpredictor.model.StockSeries;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+/**
+ * Predicts the next {@value StockPredictor#PREDICTED_POINTS} prices of windows of historical prices. Strategies work
+ *  on primitive price arrays and write their predictions into caller-provided arrays, so that a batch of windows,
+ *  for example of different tickers, can be scored without allocating per window.
+ * <p>
+ * Strategies are service providers: implementations listed in
+ *  {@code META-INF/services/org.com.stockpredictor.prediction.PredictionStrategy} are found by name with
+ *  {@link PredictionStrategies#forName(String)}. Implementations must be thread-safe.
+ */
+public interface PredictionStrategy {
+
+    /**
+     * Returns the name the strategy is chosen by.
+     *
+     * @return the name of the strategy
+     */
+    String getName();
+
+    /**
+     * Predicts the next prices of a window of historical prices.
+     *
+     * @param prices the array holding the historical prices
+     * @param offset the index of the first price of the window
+     * @param length the number of prices in the window, at least one
+     * @param predictions the array receiving the predicted prices
+     * @param predictionsOffset the index at which the predicted prices are written
+     */
+    void predict(double[] prices, int offset, int length, double[] predictions, int predictionsOffset);
+
+    /**
+     * Predicts the next prices of a window of historical prices held in a buffer, for example a read-only view of
+     *  off-heap memory. By default, the array backing a heap buffer is read in place, and the window of any other
+     *  buffer is copied to an array first; strategies override this to read every buffer in place.
+     *
+     * @param prices the buffer holding the historical prices, read by absolute index
+     * @param offset the index of the first price of the window
+     * @param length the number of prices in the window, at least one
+     * @param predictions the array receiving the predicted prices
+     * @param predictionsOffset the index at which the predicted prices are written
+     */
+    default void predict(DoubleBuffer prices, int offset, int length, double[] predictions, int predictionsOffset) {
+        if (prices.hasArray()) {
+            predict(prices.array(), prices.arrayOffset() + offset, length, predictions, predictionsOffset);
+            return;
+        }
+        double[] window = new double[length];
+        prices.get(offset, window);
+        predict(window, 0, length, predictions, predictionsOffset);
+    }
+
+    /**
+     * Predicts the next prices of many windows of the same length taken from a single price array. The predictions
+     *  of the i-th window are written at indices 3 * i to 3 * i + 2 of the output array.
+     *
+     * @param prices the array holding the historical prices
+     * @param windowOffsets the index of the first price of every window
+     * @param windowLength the number of prices in every window
+     * @param predictions the array receiving the predicted prices, of at least 3 times the number of windows
+     */
+    default void predictBatch(double[] prices, int[] windowOffsets, int windowLength, double[] predictions) {
+        for (int i = 0; i < windowOffsets.length; i++) {
+            predict(prices, windowOffsets[i], windowLength, predictions, i * StockPredictor.PREDICTED_POINTS);
+        }
+    }
+
+    /**
+     * Predicts the next prices of many windows, for example of different stocks. The predictions of the i-th window
+     *  are written at indices 3 * i to 3 * i + 2 of the output array.
+     *
+     * @param windows the windows of historical data
+     * @param predictions the array receiving the predicted prices, of at least 3 times the number of windows
+     */
+    default void predictBatch(List<StockSeries> windows, double[] predictions) {
+        for (int i = 0; i < windows.size(); i++) {
+            StockSeries window = windows.get(i);
+            predict(window.getPrices(), window.getOffset(), window.size(), predictions,
+                    i * StockPredictor.PREDICTED_POINTS);
+        }
+    }
+
+    /**
+     * Predicts the next prices of a window of historical data.
+     *
+     * @param historicalData the historical data
+     * @return a series of the predicted data points, on the days following the last historical one
+     */
+    default StockSeries predict(StockSeries historicalData) {
+        double[] predictions = new double[StockPredictor.PREDICTED_POINTS];
+        predict(historicalData.getPrices(), historicalData.getOffset(), historicalData.size(), predictions, 0);
+        int lastEpochDay = historicalData.epochDayAt(historicalData.size() - 1);
+        int[] epochDays = new int[StockPredictor.PREDICTED_POINTS];
+        for (int step = 0; step < epochDays.length; step++) {
+            epochDays[step] = lastEpochDay + step + 1;
+        }
+        return StockSeries.of(historicalData.getId(), epochDays, predictions);
+    }
+}
@@ -0,0 +1,28 @@
+package org.com.stockpredictor.prediction;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * The default strategy, applying the rules of {@link StockPredictor}: the 2nd highest price of the window, then
+ *  half the spread between the last price and that prediction, then a quarter of the spread between the first two
+ *  predictions.
+ */
+public class SecondHighestStrategy implements PredictionStrategy {
+
+    public static final String NAME = "second-highest";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void predict(double[] prices, int offset, int length, double[] predictions, int predictionsOffset) {
+        StockPredictor.predict(prices, offset, length, predictions, predictionsOffset);
+    }
+
+    @Override
+    public void predict(DoubleBuffer prices, int offset, int length, double[] predictions, int predictionsOffset) {
+        StockPredictor.predict(prices, offset, length, predictions, predictionsOffset);
+    }
+}
@@ -0,0 +1,147 @@
+package org.com.stockpredictor.prediction;
+
+/**
+ * Maintains the first predicted price of {@link StockPredictor} for a window sliding over a price series, so that
+ *  each slide costs amortized O(1) instead of rescanning the whole window.
+ * <p>
+ * The window is a queue built from two stacks, where every entry of the front stack also holds the aggregate of
+ *  itself and the entries below it, and the back stack keeps a running aggregate. The aggregate (2nd highest distinct
+ *  price and whether all prices are the same) is associative, so the answer for the whole window is the combination
+ *  of the two stack aggregates.
+ */
+public class SlidingSecondHighest {
+
+    private final double[] backValues;
+    private int backSize;
+    private double backHighest;
+    private double backSecondHighest;
+    private boolean backAllSame;
+
+    private final double[] frontValues;
+    private final double[] frontHighest;
+    private final double[] frontSecondHighest;
+    private final boolean[] frontAllSame;
+    private int frontSize;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param capacity the maximum number of prices in the window
+     */
+    public SlidingSecondHighest(int capacity) {
+        backValues = new double[capacity];
+        frontValues = new double[capacity];
+        frontHighest = new double[capacity];
+        frontSecondHighest = new double[capacity];
+        frontAllSame = new boolean[capacity];
+        resetBack();
+    }
+
+    public int size() {
+        return frontSize + backSize;
+    }
+
+    /**
+     * Adds a price at the end of the window.
+     *
+     * @param price the price to add
+     */
+    public void add(double price) {
+        if (size() == backValues.length) {
+            throw new IllegalStateException("Window is full");
+        }
+        if (backSize == 0) {
+            backHighest = Double.MIN_VALUE;
+            backSecondHighest = Double.MIN_VALUE;
+            backAllSame = true;
+        } else {
+            backAllSame &= Double.compare(price, backValues[0]) == 0;
+        }
+        backValues[backSize++] = price;
+        if (price > backHighest) {
+            backSecondHighest = backHighest;
+            backHighest = price;
+        } else if (price > backSecondHighest && price < backHighest) {
+            backSecondHighest = price;
+        }
+    }
+
+    /**
+     * Removes the oldest price of the window.
+     */
+    public void removeOldest() {
+        if (frontSize == 0) {
+            if (backSize == 0) {
+                throw new IllegalStateException("Window is empty");
+            }
+            for (int i = backSize - 1; i >= 0; i--) {
+                pushFront(backValues[i]);
+            }
+            resetBack();
+        }
+        frontSize--;
+    }
+
+    /**
+     * Returns the 2nd highest distinct price of the window, or the price itself when all prices are the same, like
+     *  {@link StockPredictor#predictFirstPrice(double[], int, int)}.
+     *
+     * @return the first predicted price for the current window
+     */
+    public double firstPredictedPrice() {
+        if (frontSize == 0) {
+            return backAllSame && backSize > 0 ? backValues[0] : backSecondHighest;
+        }
+        int top = frontSize - 1;
+        if (backSize == 0) {
+            return frontAllSame[top] ? frontValues[top] : frontSecondHighest[top];
+        }
+        if (frontAllSame[top] && backAllSame && Double.compare(frontValues[top], backValues[0]) == 0) {
+            return backValues[0];
+        }
+        double highest = Math.max(frontHighest[top], backHighest);
+        double secondHighest = Double.MIN_VALUE;
+        secondHighest = higherBelow(frontHighest[top], highest, secondHighest);
+        secondHighest = higherBelow(frontSecondHighest[top], highest, secondHighest);
+        secondHighest = higherBelow(backHighest, highest, secondHighest);
+        secondHighest = higherBelow(backSecondHighest, highest, secondHighest);
+        return secondHighest;
+    }
+
+    /**
+     * Returns the candidate if it is strictly below the highest price and above the current 2nd highest one,
+     *  otherwise the current 2nd highest price.
+     */
+    private static double higherBelow(double candidate, double highest, double secondHighest) {
+        return candidate < highest && candidate > secondHighest ? candidate : secondHighest;
+    }
+
+    private void pushFront(double price) {
+        int index = frontSize++;
+        frontValues[index] = price;
+        if (index == 0) {
+            frontHighest[index] = price > Double.MIN_VALUE ? price : Double.MIN_VALUE;
+            frontSecondHighest[index] = Double.MIN_VALUE;
+            frontAllSame[index] = true;
+            return;
+        }
+        double highest = frontHighest[index - 1];
+        double secondHighest = frontSecondHighest[index - 1];
+        if (price > highest) {
+            secondHighest = highest;
+            highest = price;
+        } else if (price > secondHighest && price < highest) {
+            secondHighest = price;
+        }
+        frontHighest[index] = highest;
+        frontSecondHighest[index] = secondHighest;
+        frontAllSame[index] = frontAllSame[index - 1] && Double.compare(price, frontValues[index - 1]) == 0;
+    }
+
+    private void resetBack() {
+        backSize = 0;
+        backHighest = Double.MIN_VALUE;
+        backSecondHighest = Double.MIN_VALUE;
+        backAllSame = true;
+    }
+}
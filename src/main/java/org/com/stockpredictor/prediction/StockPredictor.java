@@ -2,17 +2,22 @@ package org.com.stockpredictor.prediction;
 
 import org.com.stockpredictor.model.StockData;
 import org.com.stockpredictor.model.StockDataUtils;
+import org.com.stockpredictor.model.StockSeries;
 
+import java.nio.DoubleBuffer;
 import java.util.List;
-import java.util.Set;
-
-import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 /**
- * The class containing the stock data prediction logic.
+ * The class containing the stock data prediction logic, which is the default {@link PredictionStrategy} through
+ *  {@link SecondHighestStrategy}.
  */
 public class StockPredictor {
 
+    /**
+     * Number of data points predicted for every window.
+     */
+    public static final int PREDICTED_POINTS = 3;
+
     /**
      * Predicts the next 3 data points given the historical data.
      *
@@ -30,6 +35,92 @@ public class StockPredictor {
                 firstPrice, secondPrice, thirdPrice);
     }
 
+    /**
+     * Predicts the next 3 data points given a window of historical data.
+     *
+     * @param historicalData the historical data
+     * @return a series of the 3 new predicted stock data points, on the days following the last historical one
+     */
+    public static StockSeries predict(StockSeries historicalData) {
+        double[] predictions = new double[PREDICTED_POINTS];
+        predict(historicalData.getPrices(), historicalData.getOffset(), historicalData.size(), predictions, 0);
+        int lastEpochDay = historicalData.epochDayAt(historicalData.size() - 1);
+        return StockSeries.of(
+                historicalData.getId(),
+                new int[]{lastEpochDay + 1, lastEpochDay + 2, lastEpochDay + 3},
+                predictions);
+    }
+
+    /**
+     * Predicts the next 3 prices of a window of historical prices, in a single pass and without allocating.
+     *
+     * @param prices the array holding the historical prices
+     * @param offset the index of the first price of the window
+     * @param length the number of prices in the window, at least one
+     * @param predictions the array receiving the 3 predicted prices
+     * @param predictionsOffset the index at which the predicted prices are written
+     */
+    public static void predict(double[] prices, int offset, int length, double[] predictions, int predictionsOffset) {
+        double firstPrice = predictFirstPrice(prices, offset, length);
+        double secondPrice = predictSecondPrice(prices[offset + length - 1], firstPrice);
+        predictions[predictionsOffset] = firstPrice;
+        predictions[predictionsOffset + 1] = secondPrice;
+        predictions[predictionsOffset + 2] = predictThirdPrice(firstPrice, secondPrice);
+    }
+
+    /**
+     * Predicts the next 3 prices of a window of historical prices held in a buffer, reading it in place by absolute
+     *  index, so that a read-only view of off-heap memory is never copied. The array backing a heap buffer is read
+     *  directly, as by {@link #predict(double[], int, int, double[], int)}.
+     *
+     * @param prices the buffer holding the historical prices
+     * @param offset the index of the first price of the window
+     * @param length the number of prices in the window, at least one
+     * @param predictions the array receiving the 3 predicted prices
+     * @param predictionsOffset the index at which the predicted prices are written
+     */
+    public static void predict(DoubleBuffer prices, int offset, int length, double[] predictions,
+                               int predictionsOffset) {
+        if (prices.hasArray()) {
+            predict(prices.array(), prices.arrayOffset() + offset, length, predictions, predictionsOffset);
+            return;
+        }
+        double firstPrice = predictFirstPrice(prices, offset, length);
+        double secondPrice = predictSecondPrice(prices.get(offset + length - 1), firstPrice);
+        predictions[predictionsOffset] = firstPrice;
+        predictions[predictionsOffset + 1] = secondPrice;
+        predictions[predictionsOffset + 2] = predictThirdPrice(firstPrice, secondPrice);
+    }
+
+    /**
+     * Predicts the next 3 prices of many windows of the same length taken from a single price array. The predictions
+     *  of the i-th window are written at indices 3 * i to 3 * i + 2 of the output array.
+     *
+     * @param prices the array holding the historical prices
+     * @param windowOffsets the index of the first price of every window
+     * @param windowLength the number of prices in every window
+     * @param predictions the array receiving the predicted prices, of at least 3 times the number of windows
+     */
+    public static void predictBatch(double[] prices, int[] windowOffsets, int windowLength, double[] predictions) {
+        for (int i = 0; i < windowOffsets.length; i++) {
+            predict(prices, windowOffsets[i], windowLength, predictions, i * PREDICTED_POINTS);
+        }
+    }
+
+    /**
+     * Predicts the next 3 prices of many windows, for example of different stocks. The predictions of the i-th window
+     *  are written at indices 3 * i to 3 * i + 2 of the output array.
+     *
+     * @param windows the windows of historical data
+     * @param predictions the array receiving the predicted prices, of at least 3 times the number of windows
+     */
+    public static void predictBatch(List<StockSeries> windows, double[] predictions) {
+        for (int i = 0; i < windows.size(); i++) {
+            StockSeries window = windows.get(i);
+            predict(window.getPrices(), window.getOffset(), window.size(), predictions, i * PREDICTED_POINTS);
+        }
+    }
+
     /**
      * Predicts the first new price given the historical data by finding the 2nd highest price in the historical data.
      *
@@ -37,27 +128,64 @@ public class StockPredictor {
      * @return the price of the next data point
      */
     static double predictFirstPrice(List<StockData> historicalData) {
-        Set<Double> prices = historicalData.stream()
-                .map(StockData::getPrice)
-                .collect(toImmutableSet());
+        double[] prices = historicalData.stream().mapToDouble(StockData::getPrice).toArray();
+        return predictFirstPrice(prices, 0, prices.length);
+    }
+
+    /**
+     * Predicts the first new price given a window of historical prices by finding the 2nd highest distinct price in
+     *  it, in a single pass. If all prices are the same then we predict the same price.
+     *
+     * @param prices the array holding the historical prices
+     * @param offset the index of the first price of the window
+     * @param length the number of prices in the window
+     * @return the price of the next data point
+     */
+    static double predictFirstPrice(double[] prices, int offset, int length) {
         double highest = Double.MIN_VALUE;
         double secondHighest = Double.MIN_VALUE;
-
-        //if all prices are the same then we predict the same price.
-        if (prices.size() == 1) {
-            return prices.stream().findFirst().get();
+        boolean allSame = length > 0;
+        for (int i = offset; i < offset + length; i++) {
+            double price = prices[i];
+            // same notion of equality as Double.equals, which treats NaN as equal to itself
+            allSame &= Double.compare(price, prices[offset]) == 0;
+            if (price > highest) {
+                secondHighest = highest;
+                highest = price;
+            } else if (price > secondHighest && price < highest) {
+                secondHighest = price;
+            }
         }
 
-        for (double price : prices) {
+        return allSame ? prices[offset] : secondHighest;
+    }
+
+    /**
+     * Predicts the first new price given a window of historical prices held in a direct or read-only buffer, the same
+     *  way as {@link #predictFirstPrice(double[], int, int)}.
+     *
+     * @param prices the buffer holding the historical prices
+     * @param offset the index of the first price of the window
+     * @param length the number of prices in the window
+     * @return the price of the next data point
+     */
+    static double predictFirstPrice(DoubleBuffer prices, int offset, int length) {
+        double highest = Double.MIN_VALUE;
+        double secondHighest = Double.MIN_VALUE;
+        double first = length > 0 ? prices.get(offset) : 0;
+        boolean allSame = length > 0;
+        for (int i = offset; i < offset + length; i++) {
+            double price = prices.get(i);
+            allSame &= Double.compare(price, first) == 0;
             if (price > highest) {
                 secondHighest = highest;
                 highest = price;
-            } else if (price > secondHighest) {
+            } else if (price > secondHighest && price < highest) {
                 secondHighest = price;
             }
         }
 
-        return secondHighest;
+        return allSame ? first : secondHighest;
     }
 
     /**
@@ -68,7 +196,7 @@ public class StockPredictor {
      * @param firstPredictedPrice the first new predicted data point price
      * @return the price of the second predicted data point
      */
-    static double predictSecondPrice(double lastPrice, double firstPredictedPrice) {
+    public static double predictSecondPrice(double lastPrice, double firstPredictedPrice) {
         return (lastPrice + firstPredictedPrice) / 2;
     }
 
@@ -80,7 +208,7 @@ public class StockPredictor {
      * @param secondPredictedPrice the second predicted data point price
      * @return the price of the third predicted data point
      */
-    static double predictThirdPrice(double firstPredictedPrice, double secondPredictedPrice) {
+    public static double predictThirdPrice(double firstPredictedPrice, double secondPredictedPrice) {
         return firstPredictedPrice + (secondPredictedPrice - firstPredictedPrice) / 4;
     }
 }
@@ -0,0 +1,32 @@
+package org.com.stockpredictor.service;
+
+import lombok.Value;
+import org.com.stockpredictor.metrics.LatencyHistogram;
+
+/**
+ * The latency percentiles of an endpoint, in milliseconds.
+ */
+@Value
+public class LatencySummary {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    long count;
+
+    double meanMillis;
+
+    double p50Millis;
+
+    double p99Millis;
+
+    double maxMillis;
+
+    static LatencySummary of(LatencyHistogram histogram) {
+        return new LatencySummary(
+                histogram.getCount(),
+                histogram.getMeanNanos() / NANOS_PER_MILLI,
+                histogram.percentileNanos(0.5) / NANOS_PER_MILLI,
+                histogram.percentileNanos(0.99) / NANOS_PER_MILLI,
+                histogram.getMaxNanos() / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,52 @@
+package org.com.stockpredictor.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.com.stockpredictor.metrics.LatencyHistogram;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latency of every request in a histogram per endpoint, an endpoint being the HTTP method and the
+ *  matched path pattern.
+ */
+@Component
+public class LatencyTracker implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = LatencyTracker.class.getName() + ".start";
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception exception) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (start instanceof Long && pattern != null) {
+            histograms.computeIfAbsent(request.getMethod() + " " + pattern, endpoint -> new LatencyHistogram())
+                    .record(System.nanoTime() - (Long) start);
+        }
+    }
+
+    /**
+     * Summarizes the latencies recorded so far.
+     *
+     * @return the latency summary of every endpoint, by endpoint
+     */
+    public Map<String, LatencySummary> summarize() {
+        Map<String, LatencySummary> summaries = new TreeMap<>();
+        histograms.forEach((endpoint, histogram) -> summaries.put(endpoint, LatencySummary.of(histogram)));
+        return summaries;
+    }
+}
@@ -0,0 +1,53 @@
+package org.com.stockpredictor.service;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP endpoints of the prediction service.
+ */
+@RestController
+public class PredictionController {
+
+    private final PredictionService predictionService;
+    private final LatencyTracker latencyTracker;
+
+    public PredictionController(PredictionService predictionService, LatencyTracker latencyTracker) {
+        this.predictionService = predictionService;
+        this.latencyTracker = latencyTracker;
+    }
+
+    /**
+     * Predicts the next 3 data points of a ticker, from its latest window or from the window starting at the given
+     *  index.
+     */
+    @GetMapping("/exchanges/{exchange}/tickers/{ticker}/prediction")
+    public PredictionResponse predict(@PathVariable("exchange") String exchange,
+                                      @PathVariable("ticker") String ticker,
+                                      @RequestParam(name = "start", required = false) Integer start) {
+        return predictionService.predict(new PredictionRequest(exchange, ticker, start));
+    }
+
+    /**
+     * Predicts the next 3 data points of many tickers or windows at once.
+     */
+    @PostMapping("/predictions")
+    public List<PredictionResponse> predictBatch(@RequestBody List<PredictionRequest> requests) {
+        return predictionService.predictBatch(requests);
+    }
+
+    /**
+     * Returns the latency percentiles of every endpoint.
+     */
+    @GetMapping("/metrics/latency")
+    public Map<String, LatencySummary> latency() {
+        return latencyTracker.summarize();
+    }
+}
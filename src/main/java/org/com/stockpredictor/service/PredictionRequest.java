@@ -0,0 +1,23 @@
+package org.com.stockpredictor.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One item of a batch prediction request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionRequest {
+
+    private String exchange;
+
+    private String ticker;
+
+    /**
+     * Index of the first data point of the window to predict from, or null for the latest window.
+     */
+    private Integer start;
+}
@@ -0,0 +1,32 @@
+package org.com.stockpredictor.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The prediction made from a window of a ticker, or the reason why it could not be made.
+ */
+@Value
+public class PredictionResponse {
+
+    String exchange;
+
+    String ticker;
+
+    /**
+     * The window the prediction was made from.
+     */
+    List<PricePoint> history;
+
+    List<PricePoint> predictions;
+
+    /**
+     * Why no prediction could be made, null on success.
+     */
+    String error;
+
+    static PredictionResponse failure(PredictionRequest request, String error) {
+        return new PredictionResponse(request.getExchange(), request.getTicker(), List.of(), List.of(), error);
+    }
+}
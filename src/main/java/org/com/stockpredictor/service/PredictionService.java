@@ -0,0 +1,127 @@
+package org.com.stockpredictor.service;
+
+import com.google.common.collect.ImmutableList;
+import org.com.stockpredictor.model.EpochDayFormat;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.prediction.PredictionStrategies;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.com.stockpredictor.prediction.StockPredictor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Makes predictions from the series held by the {@link SeriesRepository}.
+ */
+@Service
+public class PredictionService {
+
+    static final String STRATEGY_PROPERTY = "stock-predictor.strategy";
+
+    private final SeriesRepository seriesRepository;
+    private final PredictionStrategy strategy;
+
+    public PredictionService(SeriesRepository seriesRepository) {
+        this(seriesRepository, PredictionStrategies.DEFAULT);
+    }
+
+    @Autowired
+    public PredictionService(SeriesRepository seriesRepository,
+                             @Value("${" + STRATEGY_PROPERTY + ":" + PredictionStrategies.DEFAULT + "}") String strategy) {
+        this.seriesRepository = seriesRepository;
+        this.strategy = PredictionStrategies.forName(strategy);
+    }
+
+    /**
+     * Predicts the next 3 data points of a window of a ticker.
+     *
+     * @param request the ticker and window to predict from
+     * @return the prediction
+     * @throws ResponseStatusException when the ticker does not exist or the window is not valid
+     */
+    public PredictionResponse predict(PredictionRequest request) {
+        List<PredictionResponse> responses = predictBatch(List.of(request));
+        PredictionResponse response = responses.get(0);
+        if (response.getError() != null) {
+            HttpStatus status = seriesRepository.find(request.getExchange(), request.getTicker()).isPresent()
+                    ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.NOT_FOUND;
+            throw new ResponseStatusException(status, response.getError());
+        }
+        return response;
+    }
+
+    /**
+     * Predicts the next 3 data points of many windows at once. Requests that cannot be served get a response holding
+     *  the reason, without failing the others.
+     *
+     * @param requests the tickers and windows to predict from
+     * @return the predictions, in the order of the requests
+     */
+    public List<PredictionResponse> predictBatch(List<PredictionRequest> requests) {
+        List<StockSeries> windows = new ArrayList<>(requests.size());
+        List<String> errors = new ArrayList<>(requests.size());
+        for (PredictionRequest request : requests) {
+            StockSeries series = seriesRepository.find(request.getExchange(), request.getTicker()).orElse(null);
+            if (series == null) {
+                errors.add("Unknown ticker " + request.getTicker() + " on exchange " + request.getExchange());
+                windows.add(null);
+                continue;
+            }
+            int start = request.getStart() != null
+                    ? request.getStart()
+                    : series.size() - StockCsvParser.REQUIRED_SIZE;
+            if (series.size() < StockCsvParser.REQUIRED_SIZE) {
+                errors.add("Could not find enough stock data");
+                windows.add(null);
+            } else if (start < 0 || start > series.size() - StockCsvParser.REQUIRED_SIZE) {
+                errors.add("Window start must be between 0 and " + (series.size() - StockCsvParser.REQUIRED_SIZE));
+                windows.add(null);
+            } else {
+                errors.add(null);
+                windows.add(series.window(start, StockCsvParser.REQUIRED_SIZE));
+            }
+        }
+
+        List<StockSeries> validWindows = windows.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        double[] predictions = new double[validWindows.size() * StockPredictor.PREDICTED_POINTS];
+        strategy.predictBatch(validWindows, predictions);
+
+        ImmutableList.Builder<PredictionResponse> responses = ImmutableList.builderWithExpectedSize(requests.size());
+        int validIndex = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            PredictionRequest request = requests.get(i);
+            StockSeries window = windows.get(i);
+            if (window == null) {
+                responses.add(PredictionResponse.failure(request, errors.get(i)));
+                continue;
+            }
+            int lastEpochDay = window.epochDayAt(window.size() - 1);
+            ImmutableList.Builder<PricePoint> predicted = ImmutableList.builder();
+            for (int step = 0; step < StockPredictor.PREDICTED_POINTS; step++) {
+                predicted.add(pricePoint(lastEpochDay + step + 1,
+                        predictions[validIndex * StockPredictor.PREDICTED_POINTS + step]));
+            }
+            ImmutableList.Builder<PricePoint> history = ImmutableList.builder();
+            for (int point = 0; point < window.size(); point++) {
+                history.add(pricePoint(window.epochDayAt(point), window.priceAt(point)));
+            }
+            responses.add(new PredictionResponse(
+                    request.getExchange(), request.getTicker(), history.build(), predicted.build(), null));
+            validIndex++;
+        }
+        return responses.build();
+    }
+
+    private static PricePoint pricePoint(int epochDay, double price) {
+        return new PricePoint(EpochDayFormat.format(epochDay), price);
+    }
+}
@@ -0,0 +1,35 @@
+package org.com.stockpredictor.service;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Long-running service mode: loads the exchange folders into memory once and serves predictions over HTTP.
+ */
+@SpringBootApplication
+public class PredictionServiceApplication {
+
+    /**
+     * Starts the service.
+     *
+     * @param exchangesFolder the path to the directory containing the exchange folders
+     * @param maxFilesPerExchange the maximum number of files per exchange loaded at startup
+     * @param port the HTTP port
+     * @param cacheMaxPoints the maximum number of data points kept in memory
+     * @param strategy the name of the prediction strategy
+     */
+    public static void start(Path exchangesFolder, int maxFilesPerExchange, int port, long cacheMaxPoints,
+                             String strategy) {
+        SpringApplication application = new SpringApplication(PredictionServiceApplication.class);
+        application.setDefaultProperties(Map.of(
+                SeriesRepository.EXCHANGES_FOLDER_PROPERTY, exchangesFolder.toString(),
+                SeriesRepository.PRELOAD_FILES_PER_EXCHANGE_PROPERTY, maxFilesPerExchange,
+                SeriesRepository.CACHE_MAX_POINTS_PROPERTY, cacheMaxPoints,
+                PredictionService.STRATEGY_PROPERTY, strategy,
+                "server.port", port));
+        application.run();
+    }
+}
@@ -0,0 +1,17 @@
+package org.com.stockpredictor.service;
+
+import lombok.Value;
+
+/**
+ * A dated price, as returned by the prediction service.
+ */
+@Value
+public class PricePoint {
+
+    /**
+     * Date of the price in "dd-MM-yyyy" format.
+     */
+    String date;
+
+    double price;
+}
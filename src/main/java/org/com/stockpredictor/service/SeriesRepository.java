@@ -0,0 +1,131 @@
+package org.com.stockpredictor.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.InputMode;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the series of the exchange folders in memory. The series of a ticker is the content of the
+ *  "&lt;exchange&gt;/&lt;ticker&gt;.csv" file; at most a configured number of data points are kept, evicting the
+ *  least recently used series first, and a series is parsed again only when its file changed since it was loaded.
+ */
+@Component
+public class SeriesRepository {
+
+    static final String EXCHANGES_FOLDER_PROPERTY = "stock-predictor.exchanges-folder";
+    static final String PRELOAD_FILES_PER_EXCHANGE_PROPERTY = "stock-predictor.preload-files-per-exchange";
+    static final String CACHE_MAX_POINTS_PROPERTY = "stock-predictor.cache-max-points";
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private final Path exchangesFolder;
+    private final int preloadFilesPerExchange;
+    private final Cache<Path, LoadedSeries> cache;
+
+    @Autowired
+    public SeriesRepository(@Value("${" + EXCHANGES_FOLDER_PROPERTY + "}") Path exchangesFolder,
+                            @Value("${" + PRELOAD_FILES_PER_EXCHANGE_PROPERTY + ":0}") int preloadFilesPerExchange,
+                            @Value("${" + CACHE_MAX_POINTS_PROPERTY + ":10000000}") long cacheMaxPoints) {
+        this.exchangesFolder = exchangesFolder;
+        this.preloadFilesPerExchange = preloadFilesPerExchange;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(cacheMaxPoints)
+                .<Path, LoadedSeries>weigher((path, loadedSeries) -> Math.max(1, loadedSeries.getSeries().size()))
+                .build();
+    }
+
+    /**
+     * Loads up to the configured number of files of every exchange, so the first requests find them in memory.
+     */
+    @PostConstruct
+    public void preload() {
+        try (Stream<Path> exchangeDirectories = Files.list(exchangesFolder)) {
+            exchangeDirectories.filter(Files::isDirectory).forEach(exchangeDirectory -> {
+                try (Stream<Path> files = Files.list(exchangeDirectory)) {
+                    files.filter(path -> path.toString().endsWith(".csv"))
+                            .limit(preloadFilesPerExchange)
+                            .forEach(this::load);
+                } catch (IOException e) {
+                    System.err.printf("Unable to list exchange folder: %s, with error: %s\n", exchangeDirectory, e);
+                }
+            });
+        } catch (IOException e) {
+            System.err.printf("Unable to list exchanges folder: %s, with error: %s\n", exchangesFolder, e);
+        }
+    }
+
+    /**
+     * Returns the up-to-date series of a ticker.
+     *
+     * @param exchange the exchange name
+     * @param ticker the ticker name
+     * @return the series, or empty when the exchange has no such ticker
+     */
+    public Optional<StockSeries> find(String exchange, String ticker) {
+        if (!NAME_PATTERN.matcher(exchange).matches() || !NAME_PATTERN.matcher(ticker).matches()) {
+            return Optional.empty();
+        }
+        Path file = exchangesFolder.resolve(exchange).resolve(ticker + ".csv");
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            cache.invalidate(file);
+            return Optional.empty();
+        }
+        LoadedSeries loadedSeries = cache.getIfPresent(file);
+        if (loadedSeries != null && loadedSeries.isCurrent(attributes)) {
+            return Optional.of(loadedSeries.getSeries());
+        }
+        return Optional.of(load(file).getSeries());
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private LoadedSeries load(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            StockSeries series = new StockCsvParser(new Random(), InputMode.MAPPED).extractStockSeries(file.toFile());
+            LoadedSeries loadedSeries = new LoadedSeries(series, attributes.size(),
+                    attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+            cache.put(file, loadedSeries);
+            return loadedSeries;
+        } catch (IOException e) {
+            System.err.printf("Unable to load file: %s, with error: %s\n", file, e);
+            return new LoadedSeries(StockSeries.empty(), -1, -1);
+        }
+    }
+
+    /**
+     * A series together with the version of the file it was parsed from.
+     */
+    @lombok.Value
+    private static class LoadedSeries {
+        StockSeries series;
+        long fileSize;
+        long fileModifiedNanos;
+
+        boolean isCurrent(BasicFileAttributes attributes) {
+            return fileSize == attributes.size()
+                    && fileModifiedNanos == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        }
+    }
+}
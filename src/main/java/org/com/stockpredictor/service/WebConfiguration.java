@@ -0,0 +1,23 @@
+package org.com.stockpredictor.service;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the {@link LatencyTracker} on every endpoint.
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final LatencyTracker latencyTracker;
+
+    public WebConfiguration(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(latencyTracker);
+    }
+}
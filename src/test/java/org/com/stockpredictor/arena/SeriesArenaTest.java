@@ -0,0 +1,233 @@
+package org.com.stockpredictor.arena;
+
+import org.com.stockpredictor.backtest.Backtester;
+import org.com.stockpredictor.backtest.ForecastErrors;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.InputMode;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.prediction.LinearRegressionStrategy;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.com.stockpredictor.prediction.SecondHighestStrategy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SeriesArenaTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testStoresSeriesAcrossSlabs() {
+        // room for two series of 10 points per slab
+        SeriesArena arena = new SeriesArena(256);
+        for (int i = 0; i < 5; i++) {
+            arena.add("EX0/T" + i + ".csv", series("T" + i, 10, i));
+        }
+
+        assertThat(arena.getSeriesCount()).isEqualTo(5);
+        assertThat(arena.getPointCount()).isEqualTo(50);
+        assertThat(arena.getReservedBytes()).isEqualTo(3 * 256);
+        for (int i = 0; i < 5; i++) {
+            assertSameSeries(arena.find("EX0/T" + i + ".csv").get(), series("T" + i, 10, i));
+        }
+        assertThat(arena.find("EX0/T5.csv")).isEmpty();
+    }
+
+    @Test
+    public void testGivesLargeSeriesASlabOfTheirOwn() {
+        SeriesArena arena = new SeriesArena(256);
+        arena.add("EX0/AAA.csv", series("AAA", 5, 1));
+        arena.add("EX0/BBB.csv", series("BBB", 100, 2));
+        arena.add("EX0/CCC.csv", series("CCC", 5, 3));
+
+        assertThat(arena.getReservedBytes()).isEqualTo(256 + 100 * 12 + 256);
+        assertSameSeries(arena.find("EX0/BBB.csv").get(), series("BBB", 100, 2));
+        assertSameSeries(arena.find("EX0/CCC.csv").get(), series("CCC", 5, 3));
+    }
+
+    @Test
+    public void testReplacesSeriesOfTheSameKey() {
+        SeriesArena arena = new SeriesArena();
+        arena.add("EX0/AAA.csv", series("AAA", 20, 1));
+        arena.add("EX0/AAA.csv", series("AAA", 30, 2));
+
+        assertThat(arena.getSeriesCount()).isEqualTo(1);
+        assertThat(arena.getPointCount()).isEqualTo(30);
+        assertSameSeries(arena.find("EX0/AAA.csv").get(), series("AAA", 30, 2));
+    }
+
+    @Test
+    public void testViewsAreReadOnly() {
+        SeriesArena arena = new SeriesArena();
+        ArenaSeries series = arena.add("EX0/AAA.csv", series("AAA", 10, 1));
+
+        assertThat(series.getPrices().isReadOnly()).isTrue();
+        assertThat(series.getPrices().isDirect()).isTrue();
+        assertThat(series.getPrices().order()).isEqualTo(ByteOrder.nativeOrder());
+        assertThat(series.getEpochDays().order()).isEqualTo(ByteOrder.nativeOrder());
+        assertThat(series.getEpochDays().isReadOnly()).isTrue();
+        assertThatThrownBy(() -> series.getPrices().put(0, 1d)).isInstanceOf(ReadOnlyBufferException.class);
+    }
+
+    @Test
+    public void testPredictsAndBacktestsLikeTheHeapSeries() {
+        SeriesArena arena = new SeriesArena();
+        StockSeries heapSeries = series("AAA", 200, 7);
+        ArenaSeries arenaSeries = arena.add("EX0/AAA.csv", heapSeries);
+
+        for (PredictionStrategy strategy : List.of(new SecondHighestStrategy(), new LinearRegressionStrategy())) {
+            assertThat(arenaSeries.predict(strategy, 42, 10)).isEqualTo(strategy.predict(heapSeries.window(42, 10)));
+            ForecastErrors arenaErrors = Backtester.backtest(arenaSeries.getPrices(), 10, strategy);
+            ForecastErrors heapErrors = Backtester.backtest(heapSeries, 10, strategy);
+            assertThat(arenaErrors.getWindows()).isEqualTo(heapErrors.getWindows()).isEqualTo(188);
+            assertThat(arenaErrors.meanAbsoluteError()).isEqualTo(heapErrors.meanAbsoluteError());
+            assertThat(arenaErrors.meanAbsolutePercentageError()).isEqualTo(heapErrors.meanAbsolutePercentageError());
+        }
+        assertThat(arenaSeries.copyWindow(42, 10)).isEqualTo(heapSeries.window(42, 10));
+    }
+
+    @Test
+    public void testRoundTripsThroughSnapshot() throws IOException {
+        SeriesArena arena = new SeriesArena(256);
+        arena.add("EX0/AAA.csv", series("AAA", 10, 1));
+        arena.add("EX1/BBB.csv", series("BBB", 100, 2));
+        arena.add("EX1/CCC.csv", series("CCC", 0, 3));
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("market.arena");
+
+        arena.writeSnapshot(snapshot);
+        SeriesArena read = SeriesArena.readSnapshot(snapshot);
+
+        assertThat(read.getSeries().stream().map(ArenaSeries::getKey).collect(Collectors.toList()))
+                .containsExactly("EX0/AAA.csv", "EX1/BBB.csv", "EX1/CCC.csv");
+        assertThat(read.getPointCount()).isEqualTo(110);
+        assertSameSeries(read.find("EX0/AAA.csv").get(), series("AAA", 10, 1));
+        assertSameSeries(read.find("EX1/BBB.csv").get(), series("BBB", 100, 2));
+        assertThat(read.find("EX1/CCC.csv").get().size()).isZero();
+    }
+
+    @Test
+    public void testRejectsCorruptedAndTruncatedSnapshots() throws IOException {
+        SeriesArena arena = new SeriesArena();
+        arena.add("EX0/AAA.csv", series("AAA", 50, 1));
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("market.arena");
+        arena.writeSnapshot(snapshot);
+        long size = Files.size(snapshot);
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), size - 100);
+        }
+        assertThatThrownBy(() -> SeriesArena.readSnapshot(snapshot)).isInstanceOf(IOException.class);
+
+        arena.writeSnapshot(snapshot);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 9);
+        }
+        assertThatThrownBy(() -> SeriesArena.readSnapshot(snapshot)).isInstanceOf(IOException.class);
+
+        Files.writeString(snapshot, "not a snapshot at all");
+        assertThatThrownBy(() -> SeriesArena.readSnapshot(snapshot)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testRejectsSnapshotsWithCorruptedCountsBeforeAllocating() throws IOException {
+        SeriesArena arena = new SeriesArena();
+        arena.add("EX0/AAA.csv", series("AAA", 50, 1));
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("market.arena");
+
+        // series count, then length of the key of the first entry
+        for (int position : new int[]{12, 20}) {
+            arena.writeSnapshot(snapshot);
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), position);
+            }
+            assertThatThrownBy(() -> SeriesArena.readSnapshot(snapshot)).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    public void testReadsSnapshotsOfTheOtherByteOrder() throws IOException {
+        SeriesArena arena = new SeriesArena();
+        arena.add("EX0/AAA.csv", series("AAA", 50, 1));
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("market.arena");
+        arena.writeSnapshot(snapshot);
+
+        // rewrite the snapshot as written by a machine of the other byte order
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        ByteOrder otherOrder = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN
+                ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        content.putInt(8, otherOrder == ByteOrder.BIG_ENDIAN ? 0 : 1);
+        int points = 20 + content.getInt(16);
+        ByteBuffer nativeContent = content.duplicate().order(ByteOrder.nativeOrder());
+        ByteBuffer otherContent = content.duplicate().order(otherOrder);
+        for (int i = 0; i < 50; i++) {
+            otherContent.putDouble(points + i * 8, nativeContent.getDouble(points + i * 8));
+            otherContent.putInt(points + 50 * 8 + i * 4, nativeContent.getInt(points + 50 * 8 + i * 4));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate().limit(content.capacity() - 8));
+        content.putLong(content.capacity() - 8, crc.getValue());
+        Files.write(snapshot, content.array());
+
+        assertSameSeries(SeriesArena.readSnapshot(snapshot).find("EX0/AAA.csv").get(), series("AAA", 50, 1));
+    }
+
+    @Test
+    public void testAddsParsedCsvFiles() throws IOException, InterruptedException {
+        File exchange = temporaryFolder.newFolder("NYSE");
+        File aaa = writeCsv(exchange, "AAA.csv", "AAA,01-02-2020,10.5\nAAA,02-02-2020,11.25\nAAA,03-02-2020,12\n");
+        File bbb = writeCsv(exchange, "BBB.csv", "BBB,01-02-2020,20\n");
+        SeriesArena arena = new SeriesArena();
+
+        int added = arena.addFiles(List.of(aaa, bbb),
+                file -> new StockCsvParser(new Random(), InputMode.READER), 2);
+
+        assertThat(added).isEqualTo(2);
+        ArenaSeries series = arena.find("NYSE/AAA.csv").get();
+        assertThat(series.getId()).isEqualTo("AAA");
+        assertThat(series.size()).isEqualTo(3);
+        assertThat(series.priceAt(1)).isEqualTo(11.25);
+        assertThat(series.epochDayAt(2) - series.epochDayAt(0)).isEqualTo(2);
+        assertThat(arena.find("NYSE/BBB.csv").get().priceAt(0)).isEqualTo(20);
+    }
+
+    private static StockSeries series(String id, int size, long seed) {
+        Random random = new Random(seed);
+        int[] epochDays = new int[size];
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = 18_000 + i;
+            prices[i] = Math.round(random.nextDouble() * 10_000) / 100d;
+        }
+        return StockSeries.of(id, epochDays, prices);
+    }
+
+    private static void assertSameSeries(ArenaSeries actual, StockSeries expected) {
+        assertThat(actual.getId()).isEqualTo(expected.getId());
+        assertThat(actual.copyWindow(0, actual.size())).isEqualTo(expected);
+    }
+
+    private static File writeCsv(File exchange, String name, String content) throws IOException {
+        File file = new File(exchange, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
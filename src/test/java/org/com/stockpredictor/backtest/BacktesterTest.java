@@ -0,0 +1,56 @@
+package org.com.stockpredictor.backtest;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.prediction.LinearRegressionStrategy;
+import org.com.stockpredictor.prediction.PredictionStrategies;
+import org.com.stockpredictor.prediction.StockPredictor;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class BacktesterTest {
+
+    @Test
+    public void testAccumulatesErrorsOfEveryWindow() {
+        double[] prices = {10d, 12d, 11d, 13d, 9d, 14d, 15d, 10d, 8d, 12d};
+        StockSeries series = StockSeries.of("Mock", new int[prices.length], prices);
+
+        ForecastErrors errors = Backtester.backtest(series, 4);
+
+        ForecastErrors expected = new ForecastErrors();
+        double[] predictions = new double[3];
+        for (int start = 0; start + 4 + 3 <= prices.length; start++) {
+            StockPredictor.predict(prices, start, 4, predictions, 0);
+            expected.countWindow();
+            for (int step = 0; step < 3; step++) {
+                expected.add(predictions[step], prices[start + 4 + step]);
+            }
+        }
+        assertThat(errors.getWindows()).isEqualTo(4);
+        assertThat(errors.getPoints()).isEqualTo(12);
+        assertThat(errors.meanAbsoluteError()).isCloseTo(expected.meanAbsoluteError(), within(1e-12));
+        assertThat(errors.meanAbsolutePercentageError())
+                .isCloseTo(expected.meanAbsolutePercentageError(), within(1e-12));
+    }
+
+    @Test
+    public void testBacktestsChosenStrategy() {
+        double[] prices = {10d, 12d, 14d, 16d, 18d, 20d, 22d, 24d};
+        StockSeries series = StockSeries.of("Mock", new int[prices.length], prices);
+
+        ForecastErrors linear = Backtester.backtest(series, 4, new LinearRegressionStrategy());
+        ForecastErrors secondHighest = Backtester.backtest(series, 4, PredictionStrategies.getDefault());
+
+        assertThat(linear.getWindows()).isEqualTo(2);
+        assertThat(linear.meanAbsoluteError()).isCloseTo(0, within(1e-12));
+        assertThat(secondHighest.meanAbsoluteError()).isEqualTo(Backtester.backtest(series, 4).meanAbsoluteError());
+    }
+
+    @Test
+    public void testNoWindowWhenSeriesIsTooShort() {
+        StockSeries series = StockSeries.of("Mock", new int[6], new double[]{1d, 2d, 3d, 4d, 5d, 6d});
+
+        assertThat(Backtester.backtest(series, 4).getWindows()).isZero();
+    }
+}
@@ -0,0 +1,139 @@
+package org.com.stockpredictor.dataset;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.InputMode;
+import org.com.stockpredictor.parsing.RowError;
+import org.com.stockpredictor.parsing.RowLogging;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DatasetGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testGeneratesExchangeFolderLayout() throws Exception {
+        Path outputFolder = temporaryFolder.newFolder("exchanges").toPath();
+        DatasetGenerator generator = new DatasetGenerator(spec(outputFolder, 1, 0).build());
+
+        List<Path> files = generator.generate();
+
+        assertThat(files).hasSize(6).containsExactly(
+                outputFolder.resolve("EX0/AAA.csv"), outputFolder.resolve("EX0/AAB.csv"),
+                outputFolder.resolve("EX0/AAC.csv"), outputFolder.resolve("EX1/AAA.csv"),
+                outputFolder.resolve("EX1/AAB.csv"), outputFolder.resolve("EX1/AAC.csv"));
+        assertThat(generator.getRows()).isEqualTo(6 * 500);
+        assertThat(generator.getMalformedRows()).isZero();
+        assertThat(generator.getBytes()).isEqualTo(files.stream().mapToLong(DatasetGeneratorTest::size).sum());
+
+        StockSeries series = new StockCsvParser(new Random()).extractStockSeries(files.get(4).toFile());
+        assertThat(series.size()).isEqualTo(500);
+        assertThat(series.getId()).isEqualTo("AAB");
+        assertThat(series.get(0).getTimestamp()).isEqualTo(LocalDate.of(1990, 1, 1));
+        assertThat(series.get(499).getTimestamp()).isEqualTo(LocalDate.of(1990, 1, 1).plusDays(499));
+        for (int i = 0; i < series.size(); i++) {
+            assertThat(series.priceAt(i)).isPositive();
+        }
+    }
+
+    @Test
+    public void testSameSeedGeneratesSameFilesWhateverTheThreads() throws Exception {
+        List<Path> singleThreaded = new DatasetGenerator(
+                spec(temporaryFolder.newFolder("single").toPath(), 1, 0.05).build()).generate();
+        List<Path> multiThreaded = new DatasetGenerator(
+                spec(temporaryFolder.newFolder("multi").toPath(), 4, 0.05).build()).generate();
+        List<Path> otherSeed = new DatasetGenerator(
+                spec(temporaryFolder.newFolder("other").toPath(), 4, 0.05).seed(7).build()).generate();
+
+        for (int i = 0; i < singleThreaded.size(); i++) {
+            assertThat(Files.readAllBytes(multiThreaded.get(i))).isEqualTo(Files.readAllBytes(singleThreaded.get(i)));
+            assertThat(Files.readAllBytes(otherSeed.get(i))).isNotEqualTo(Files.readAllBytes(singleThreaded.get(i)));
+        }
+        assertThat(Files.readAllBytes(singleThreaded.get(0))).isNotEqualTo(Files.readAllBytes(singleThreaded.get(1)));
+    }
+
+    @Test
+    public void testMalformedRowsAreRejectedByTheParser() throws Exception {
+        DatasetGenerator generator = new DatasetGenerator(
+                spec(temporaryFolder.newFolder("exchanges").toPath(), 2, 0.1).build());
+        Map<RowError, Long> rejected = new EnumMap<>(RowError.class);
+        AtomicLong parsedRows = new AtomicLong();
+        StockCsvParser parser = new StockCsvParser(new Random(), InputMode.CHANNEL, null, RowLogging.NONE,
+                (file, bytes, rows, errors) -> {
+                    parsedRows.addAndGet(rows);
+                    for (RowError error : RowError.values()) {
+                        rejected.merge(error, errors.count(error), Long::sum);
+                    }
+                });
+
+        long valid = 0;
+        for (Path file : generator.generate()) {
+            valid += parser.extractStockSeries(file.toFile()).size();
+        }
+
+        assertThat(parsedRows.get()).isEqualTo(generator.getRows());
+        assertThat(generator.getMalformedRows()).isBetween(200L, 400L);
+        assertThat(rejected.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(generator.getMalformedRows());
+        assertThat(rejected.values()).allMatch(count -> count > 0);
+        assertThat(valid).isEqualTo(generator.getRows() - generator.getMalformedRows());
+    }
+
+    @Test
+    public void testTickerNames() {
+        assertThat(DatasetGenerator.tickerName(0)).isEqualTo("AAA");
+        assertThat(DatasetGenerator.tickerName(27)).isEqualTo("ABB");
+        assertThat(DatasetGenerator.tickerName(26 * 26 * 26 - 1)).isEqualTo("ZZZ");
+        assertThat(DatasetGenerator.tickerName(26 * 26 * 26)).isEqualTo("BAAA");
+    }
+
+    @Test
+    public void testParsesArguments() {
+        DatasetSpec spec = DatasetSpec.parse(new String[]{"out", "--exchanges=3", "--files-per-exchange=4",
+                "--rows-per-file=100", "--volatility=0.05", "--malformed-rate=0.01", "--seed=7", "--threads=2",
+                "--start-date=2000-01-31"});
+
+        assertThat(spec).isEqualTo(DatasetSpec.builder().outputFolder(Path.of("out")).exchanges(3)
+                .filesPerExchange(4).rowsPerFile(100).volatility(0.05).malformedRate(0.01).seed(7).threads(2)
+                .startDate(LocalDate.of(2000, 1, 31)).build());
+        assertThatThrownBy(() -> DatasetSpec.parse(new String[]{"out", "--malformed-rate=2"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DatasetSpec.parse(new String[]{"out", "--rows-per-file=100000000"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DatasetSpec.parse(new String[]{"out", "--rows"}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DatasetSpec.DatasetSpecBuilder spec(Path outputFolder, int threads, double malformedRate) {
+        return DatasetSpec.builder()
+                .outputFolder(outputFolder)
+                .exchanges(2)
+                .filesPerExchange(3)
+                .rowsPerFile(500)
+                .malformedRate(malformedRate)
+                .threads(threads);
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.com.stockpredictor.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMeanNanos()).isZero();
+        assertThat(histogram.percentileNanos(0.99)).isZero();
+    }
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getMaxNanos()).isEqualTo(100_000_000);
+        assertThat(histogram.getMeanNanos()).isCloseTo(50_000_500, within(1.0));
+        assertThat((double) histogram.percentileNanos(0.5)).isCloseTo(50_000_000, within(50_000_000 * 0.125));
+        assertThat((double) histogram.percentileNanos(0.99)).isCloseTo(99_000_000, within(99_000_000 * 0.125));
+        assertThat(histogram.percentileNanos(1)).isEqualTo(100_000_000);
+    }
+
+    @Test
+    public void testBucketBoundsContainValue() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(LatencyHistogram.upperBoundOf(bucket)).isGreaterThanOrEqualTo(value);
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.upperBoundOf(bucket - 1)).isLessThan(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.com.stockpredictor.metrics;
+
+import com.google.common.io.Resources;
+import org.com.stockpredictor.parsing.InputMode;
+import org.com.stockpredictor.parsing.RowError;
+import org.com.stockpredictor.parsing.RowErrorCounts;
+import org.com.stockpredictor.parsing.RowLogging;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PipelineMetricsTest {
+
+    @Test
+    public void testParsedFilesAreCounted() throws URISyntaxException {
+        PipelineMetrics metrics = new PipelineMetrics();
+        File good = new File(Resources.getResource("TSLA.csv").toURI());
+        File bad = new File(Resources.getResource("TSLA-bad.csv").toURI());
+        for (InputMode inputMode : InputMode.values()) {
+            StockCsvParser parser = new StockCsvParser(new Random(), inputMode, null, RowLogging.NONE, metrics);
+            parser.extractStockSeries(good);
+            parser.extractStockSeries(bad);
+        }
+
+        int modes = InputMode.values().length;
+        assertThat(metrics.getFilesParsed()).isEqualTo(2L * modes);
+        assertThat(metrics.getRowsParsed()).isEqualTo(109L * modes);
+        assertThat(metrics.getBytesParsed()).isEqualTo((good.length() + bad.length()) * modes);
+        assertThat(metrics.getRejectedRows(RowError.BAD_PRICE)).isEqualTo(modes);
+        assertThat(metrics.getRejectedRows(RowError.BAD_DATE)).isEqualTo(modes);
+        assertThat(metrics.getRejectedRows(RowError.EMPTY_ID)).isEqualTo(modes);
+        assertThat(metrics.getRejectedRowsByFile()).containsOnlyKeys(bad.getPath());
+        assertThat(metrics.getSummary()).startsWith(String.format(
+                "Parsed %d files, %d rows", 2 * modes, 109 * modes));
+    }
+
+    @Test
+    public void testRejectedRowsAreCountedByReasonForEveryFile() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RowErrorCounts errors = new RowErrorCounts(RowLogging.NONE);
+        errors.record(1, RowError.BAD_PRICE);
+        errors.record(2, RowError.BAD_PRICE);
+        errors.record(3, RowError.BAD_DATE);
+        metrics.fileParsed(new File("EX0/AAA.csv"), 100, 10, errors);
+        metrics.fileParsed(new File("EX0/AAA.csv"), 100, 10, errors);
+        metrics.fileParsed(new File("EX0/BBB.csv"), 100, 10, new RowErrorCounts(RowLogging.NONE));
+
+        Map<String, Map<String, Long>> byFile = metrics.getRejectedRowsByFile();
+        assertThat(byFile).containsOnlyKeys(new File("EX0/AAA.csv").getPath());
+        assertThat(byFile.get(new File("EX0/AAA.csv").getPath()))
+                .containsEntry("BAD_PRICE", 4L)
+                .containsEntry("BAD_DATE", 2L)
+                .containsEntry("EMPTY_ID", 0L);
+    }
+
+    @Test
+    public void testRejectedRowsByFileAreBounded() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RowErrorCounts errors = new RowErrorCounts(RowLogging.NONE);
+        errors.record(1, RowError.EMPTY_ID);
+        for (int i = 0; i < PipelineMetrics.MAX_FILES_WITH_REJECTED_ROWS + 10; i++) {
+            metrics.fileParsed(new File("EX0/T" + i + ".csv"), 100, 10, errors);
+        }
+
+        assertThat(metrics.getRejectedRowsByFile()).hasSize(PipelineMetrics.MAX_FILES_WITH_REJECTED_ROWS);
+        assertThat(metrics.getRejectedRows(RowError.EMPTY_ID))
+                .isEqualTo(PipelineMetrics.MAX_FILES_WITH_REJECTED_ROWS + 10);
+    }
+
+    @Test
+    public void testStageLatenciesAreRecorded() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.recordSince(Stage.PREDICT, System.nanoTime() - 2_000_000);
+
+        assertThat(metrics.getLatencies(Stage.PREDICT).getCount()).isEqualTo(1);
+        assertThat(metrics.getLatencies(Stage.PARSE).getCount()).isZero();
+        assertThat(metrics.getMeanLatencies().get("PREDICT")).isGreaterThanOrEqualTo(2.0);
+    }
+
+    @Test
+    public void testRegisteredOverJmx() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(PipelineMetrics.OBJECT_NAME);
+        assertThat(server.getAttribute(name, "FilesParsed")).isEqualTo(0L);
+        assertThat((String) server.getAttribute(name, "Summary")).startsWith("Parsed 0 files");
+        server.unregisterMBean(name);
+    }
+}
@@ -0,0 +1,27 @@
+package org.com.stockpredictor.model;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EpochDayFormatTest {
+
+    @Test
+    public void testFormatMatchesFormatter() {
+        for (LocalDate date = LocalDate.of(1890, 1, 1); date.getYear() < 2110; date = date.plusDays(1)) {
+            int epochDay = (int) date.toEpochDay();
+            String expected = date.format(StockData.TIMESTAMP_DATE_FORMATTER);
+            assertThat(EpochDayFormat.format(epochDay)).isEqualTo(expected);
+            if (EpochDayFormat.isTabulated(epochDay)) {
+                byte[] copied = new byte[EpochDayFormat.LENGTH + 1];
+                EpochDayFormat.copyTo(epochDay, copied, 1);
+                assertThat(new String(copied, 1, EpochDayFormat.LENGTH, StandardCharsets.US_ASCII)).isEqualTo(expected);
+            }
+        }
+        assertThat(EpochDayFormat.isTabulated((int) LocalDate.of(1900, 1, 1).toEpochDay())).isTrue();
+        assertThat(EpochDayFormat.isTabulated((int) LocalDate.of(2100, 1, 1).toEpochDay())).isFalse();
+    }
+}
@@ -0,0 +1,31 @@
+package org.com.stockpredictor.model;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StockDataTest {
+
+    @Test
+    public void testIdsShareOneDictionaryEntry() {
+        StockData first = StockData.of(new String("TSLA"), LocalDate.of(2023, 1, 1), 1.5);
+        StockData second = StockData.of(new String("TSLA"), LocalDate.of(2023, 1, 2), 2.5);
+        StockData other = StockData.of("AAPL", LocalDate.of(2023, 1, 1), 1.5);
+
+        assertThat(first.getTickerCode()).isEqualTo(second.getTickerCode()).isNotEqualTo(other.getTickerCode());
+        assertThat(first.getId()).isSameAs(second.getId()).isEqualTo("TSLA");
+        assertThat(TickerDictionary.symbolOf(TickerDictionary.codeOf("TSLA"))).isEqualTo("TSLA");
+    }
+
+    @Test
+    public void testDateRoundTripsThroughEpochDay() {
+        StockData stockData = StockData.of("TSLA", LocalDate.of(2023, 2, 28), 201.25);
+
+        assertThat(stockData.getTimestamp()).isEqualTo(LocalDate.of(2023, 2, 28));
+        assertThat(stockData).isEqualTo(StockData.of("TSLA", (int) LocalDate.of(2023, 2, 28).toEpochDay(), 201.25));
+        assertThat(stockData.toCsvRow()).isEqualTo("TSLA,28-02-2023,201.25\n");
+        assertThat(stockData.toString()).isEqualTo("StockData(id=TSLA, timestamp=2023-02-28, price=201.25)");
+    }
+}
@@ -0,0 +1,65 @@
+package org.com.stockpredictor.model;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StockSeriesTest {
+
+    private static final String STOCK_ID = "TSLA";
+
+    @Test
+    public void testConvertsFromAndToStockData() {
+        List<StockData> stockDataList = StockDataUtils.createStockDataList(
+                STOCK_ID, LocalDate.of(2023, 9, 3), 193.20, 191.84, 194.14, 192.20);
+
+        StockSeries series = StockSeries.fromStockData(stockDataList);
+
+        assertThat(series.getId()).isEqualTo(STOCK_ID);
+        assertThat(series.size()).isEqualTo(4);
+        assertThat(series.timestampAt(0)).isEqualTo(LocalDate.of(2023, 9, 4));
+        assertThat(series.priceAt(3)).isEqualTo(192.20);
+        assertThat(series.toStockDataList()).isEqualTo(stockDataList);
+    }
+
+    @Test
+    public void testWindowSharesBackingArrays() {
+        StockSeries.Builder builder = StockSeries.builder(STOCK_ID);
+        for (int i = 0; i < 100; i++) {
+            builder.add(19000 + i, i * 1.5);
+        }
+        StockSeries series = builder.build();
+
+        StockSeries window = series.window(40, 10).window(2, 5);
+
+        assertThat(window.size()).isEqualTo(5);
+        assertThat(window.getPrices()).isSameAs(series.getPrices());
+        assertThat(window.getOffset()).isEqualTo(42);
+        assertThat(window.priceAt(0)).isEqualTo(63.0);
+        assertThat(window.epochDayAt(4)).isEqualTo(19046);
+        assertThat(window).isEqualTo(StockSeries.of(STOCK_ID,
+                new int[]{19042, 19043, 19044, 19045, 19046},
+                new double[]{63.0, 64.5, 66.0, 67.5, 69.0}));
+    }
+
+    @Test
+    public void testCompactCopiesWindowsOnly() {
+        StockSeries series = StockSeries.of(STOCK_ID, new int[]{1, 2, 3, 4}, new double[]{1d, 2d, 3d, 4d});
+
+        StockSeries compacted = series.window(1, 2).compact();
+
+        assertThat(compacted).isEqualTo(series.window(1, 2));
+        assertThat(compacted.getPrices()).hasSize(2);
+        assertThat(compacted.getEpochDays()).containsExactly(2, 3);
+        assertThat(compacted.getOffset()).isZero();
+        assertThat(series.compact()).isSameAs(series);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testWindowOutOfBounds() {
+        StockSeries.of(STOCK_ID, new int[]{1, 2}, new double[]{1d, 2d}).window(1, 2);
+    }
+}
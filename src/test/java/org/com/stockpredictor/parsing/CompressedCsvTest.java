@@ -0,0 +1,155 @@
+package org.com.stockpredictor.parsing;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.google.common.io.Resources;
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompressedCsvTest {
+    private final ByteArrayOutputStream errorContent = new ByteArrayOutputStream();
+    private final PrintStream originalError = System.err;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUpStreams() {
+        System.setErr(new PrintStream(errorContent));
+    }
+
+    @After
+    public void restoreStreams() {
+        System.setErr(originalError);
+    }
+
+    @Test
+    public void testCompressedSeriesMatchesPlainSeries() throws IOException, URISyntaxException {
+        File plain = new File(Resources.getResource("TSLA.csv").toURI());
+        StockSeries expected = new StockCsvParser(new Random(), InputMode.CHANNEL).extractStockSeries(plain);
+        for (Compression compression : new Compression[]{Compression.GZIP, Compression.ZSTD}) {
+            File compressed = compress(plain.toPath(), "TSLA", compression);
+            for (InputMode inputMode : InputMode.values()) {
+                StockCsvParser parser = new StockCsvParser(new Random(), inputMode);
+                assertThat(parser.extractStockSeries(compressed)).isEqualTo(expected);
+                assertThat(parser.extractAllStockData(compressed)).isEqualTo(expected.toStockDataList());
+            }
+        }
+    }
+
+    @Test
+    public void testLinesAcrossChunksAreParsed() throws IOException {
+        Path plain = temporaryFolder.newFile("BIG.csv").toPath();
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 3 * DecompressingCsvReader.CHUNK_SIZE) {
+            content.append("BIG,01-01-2023,").append(content.length() % 1000).append(".25\r\n");
+        }
+        content.append("BIG,02-01-2023,7");
+        Files.writeString(plain, content);
+        StockSeries expected = new StockCsvParser(new Random(), InputMode.CHANNEL).extractStockSeries(plain.toFile());
+
+        File compressed = compress(plain, "BIG", Compression.ZSTD);
+
+        assertThat(new StockCsvParser(new Random(), InputMode.CHANNEL).extractStockSeries(compressed))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void testSampledWindowIsUniformOverStartsExceptTheLast() throws IOException, URISyntaxException,
+            InsufficientStockDataException {
+        File plain = new File(Resources.getResource("TSLA.csv").toURI());
+        StockSeries series = new StockCsvParser(new Random(), InputMode.CHANNEL).extractStockSeries(plain);
+        File compressed = compress(plain.toPath(), "TSLA", Compression.GZIP);
+
+        Set<Integer> starts = new HashSet<>();
+        for (long seed = 0; seed < 2000; seed++) {
+            StockSeries window = new StockCsvParser(new Random(seed), InputMode.CHANNEL)
+                    .extractRandomConsecutiveStockSeries(compressed);
+            int start = indexOf(series, window.epochDayAt(0));
+            assertThat(window).isEqualTo(series.window(start, StockCsvParser.REQUIRED_SIZE));
+            starts.add(start);
+        }
+
+        assertThat(starts).hasSize(series.size() - StockCsvParser.REQUIRED_SIZE)
+                .doesNotContain(series.size() - StockCsvParser.REQUIRED_SIZE);
+    }
+
+    @Test
+    public void testSamplesContentReadIntoMemoryLikeTheFile() throws IOException, URISyntaxException,
+            InsufficientStockDataException {
+        File plain = new File(Resources.getResource("TSLA.csv").toURI());
+        File compressed = compress(plain.toPath(), "TSLA", Compression.ZSTD);
+        byte[] content = Files.readAllBytes(compressed.toPath());
+        long[] parsed = new long[3];
+        ParseListener listener = (file, bytes, rows, errors) -> {
+            parsed[0]++;
+            parsed[1] = bytes;
+            parsed[2] = rows;
+        };
+
+        StockSeries window = new StockCsvParser(new Random(42), InputMode.CHANNEL, null, RowLogging.NONE, listener)
+                .extractRandomConsecutiveStockSeries(compressed, content);
+
+        assertThat(window).isEqualTo(new StockCsvParser(new Random(42), InputMode.CHANNEL)
+                .extractRandomConsecutiveStockSeries(compressed));
+        assertThat(parsed).containsExactly(1, content.length,
+                Files.readAllLines(plain.toPath()).size());
+    }
+
+    @Test
+    public void testSamplingWithoutEnoughData() throws IOException, URISyntaxException {
+        File plain = new File(Resources.getResource("TSLA-bad.csv").toURI());
+        File compressed = compress(plain.toPath(), "TSLA-bad", Compression.GZIP);
+
+        assertThatThrownBy(() -> new StockCsvParser(new Random()).extractRandomConsecutiveStockDataBySeeking(compressed))
+                .isInstanceOf(InsufficientStockDataException.class);
+        assertThat(errorContent.toString()).contains("Unable to parse price at row: 1");
+    }
+
+    @Test
+    public void testPlainName() {
+        assertThat(Compression.plainName("TSLA.csv.gz")).isEqualTo("TSLA.csv");
+        assertThat(Compression.plainName("TSLA.csv.zst")).isEqualTo("TSLA.csv");
+        assertThat(Compression.plainName("TSLA.csv")).isEqualTo("TSLA.csv");
+        assertThat(Compression.isCsv("TSLA.txt.gz")).isFalse();
+    }
+
+    private File compress(Path plain, String name, Compression compression) throws IOException {
+        File compressed = new File(temporaryFolder.getRoot(), name + compression.getExtension());
+        try (OutputStream output = compression == Compression.GZIP
+                ? new GZIPOutputStream(Files.newOutputStream(compressed.toPath()))
+                : new ZstdOutputStream(Files.newOutputStream(compressed.toPath()))) {
+            Files.copy(plain, output);
+        }
+        return compressed;
+    }
+
+    private static int indexOf(StockSeries series, int epochDay) {
+        for (int i = 0; i < series.size(); i++) {
+            if (series.epochDayAt(i) == epochDay) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,204 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PartitionedResultSinkTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testAppendsCsvRowsOfEveryExchangeToItsPart() throws IOException {
+        Path outputDirectory = temporaryFolder.newFolder("out").toPath();
+        try (PartitionedResultSink sink = new PartitionedResultSink(outputDirectory, OutputFormat.CSV, 1 << 20, true)) {
+            sink.write(new File("NYSE/AAA.csv"), history("AAA", 1), predictions("AAA"));
+            sink.write(new File("LSE/BBB.csv"), history("BBB", 2), predictions("BBB"));
+            sink.write(new File("NYSE/CCC.csv.gz"), history("CCC", 3), predictions("CCC"));
+        }
+
+        assertThat(listFiles(outputDirectory)).containsExactly(
+                "LSE-00000.csv", "LSE.index.csv", "NYSE-00000.csv", "NYSE.index.csv");
+        StockCsvWriter writer = new StockCsvWriter(outputDirectory);
+        String expectedAaa = format(writer, "AAA", 1);
+        String expectedCcc = format(writer, "CCC", 3);
+        assertThat(read(outputDirectory.resolve("NYSE-00000.csv"))).isEqualTo(expectedAaa + expectedCcc);
+        assertThat(read(outputDirectory.resolve("LSE-00000.csv"))).isEqualTo(format(writer, "BBB", 2));
+        assertThat(Files.readAllLines(outputDirectory.resolve("NYSE.index.csv"))).containsExactly(
+                "AAA,NYSE-00000.csv,0," + expectedAaa.length(),
+                "CCC,NYSE-00000.csv," + expectedAaa.length() + "," + expectedCcc.length());
+    }
+
+    @Test
+    public void testRollsPartsWithoutSplittingRecords() throws IOException {
+        Path outputDirectory = temporaryFolder.newFolder("out").toPath();
+        StockCsvWriter writer = new StockCsvWriter(outputDirectory);
+        int recordLength = format(writer, "T0", 0).length();
+        try (PartitionedResultSink sink = new PartitionedResultSink(
+                outputDirectory, OutputFormat.CSV, recordLength * 3L, true)) {
+            for (int i = 0; i < 10; i++) {
+                sink.write(new File("NYSE/T" + i + ".csv"), history("T" + i, 0), predictions("T" + i));
+            }
+        }
+
+        assertThat(listFiles(outputDirectory)).containsExactly(
+                "NYSE-00000.csv", "NYSE-00001.csv", "NYSE-00002.csv", "NYSE-00003.csv", "NYSE.index.csv");
+        assertThat(Files.size(outputDirectory.resolve("NYSE-00003.csv"))).isEqualTo(recordLength);
+        List<String> index = Files.readAllLines(outputDirectory.resolve("NYSE.index.csv"));
+        assertThat(index).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            String[] entry = index.get(i).split(",");
+            assertThat(entry[0]).isEqualTo("T" + i);
+            String part = read(outputDirectory.resolve(entry[1]));
+            int offset = Integer.parseInt(entry[2]);
+            assertThat(part.substring(offset, offset + Integer.parseInt(entry[3])))
+                    .isEqualTo(format(writer, "T" + i, 0));
+        }
+    }
+
+    @Test
+    public void testBinaryRecordsReadBack() throws IOException {
+        Path outputDirectory = temporaryFolder.newFolder("out").toPath();
+        try (PartitionedResultSink sink = new PartitionedResultSink(
+                outputDirectory, OutputFormat.BINARY, 1 << 20, true)) {
+            sink.write(new File("NYSE/AAA.csv"), history("AAA", 1), predictions("AAA"));
+            sink.write(new File("NYSE/BBB.csv"), history("BBB", 2), predictions("BBB"));
+        }
+
+        List<BinaryResults.Record> records = BinaryResults.read(outputDirectory.resolve("NYSE-00000.bin"));
+        assertThat(records).containsExactly(
+                new BinaryResults.Record(history("AAA", 1), predictions("AAA")),
+                new BinaryResults.Record(history("BBB", 2), predictions("BBB")));
+
+        String[] entry = Files.readAllLines(outputDirectory.resolve("NYSE.index.csv")).get(1).split(",");
+        ByteBuffer part = ByteBuffer.wrap(Files.readAllBytes(outputDirectory.resolve(entry[1])));
+        part.position(Integer.parseInt(entry[2]));
+        assertThat(BinaryResults.readRecord(part))
+                .isEqualTo(new BinaryResults.Record(history("BBB", 2), predictions("BBB")));
+        assertThat(part.position()).isEqualTo(part.limit());
+    }
+
+    @Test
+    public void testWritesNoIndexUnlessRequested() throws IOException {
+        Path outputDirectory = temporaryFolder.newFolder("out").toPath();
+        try (PartitionedResultSink sink = new PartitionedResultSink(
+                outputDirectory, OutputFormat.CSV, 1 << 20, false)) {
+            sink.write(new File("NYSE/AAA.csv"), history("AAA", 1), predictions("AAA"));
+        }
+
+        assertThat(listFiles(outputDirectory)).containsExactly("NYSE-00000.csv");
+    }
+
+    @Test
+    public void testStartsANewPartWhenOpeningAPartFails() throws IOException {
+        Path outputDirectory = temporaryFolder.newFolder("out").toPath();
+        StockCsvWriter writer = new StockCsvWriter(outputDirectory);
+        // the second part cannot be created as a file
+        Files.createDirectory(outputDirectory.resolve("NYSE-00001.csv"));
+        PrintStream originalError = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try (PartitionedResultSink sink = new PartitionedResultSink(outputDirectory, OutputFormat.CSV, 1, false)) {
+            for (int i = 0; i < 3; i++) {
+                sink.write(new File("NYSE/T" + i + ".csv"), history("T" + i, i), predictions("T" + i));
+            }
+        } finally {
+            System.setErr(originalError);
+        }
+
+        assertThat(read(outputDirectory.resolve("NYSE-00000.csv"))).isEqualTo(format(writer, "T0", 0));
+        assertThat(read(outputDirectory.resolve("NYSE-00002.csv"))).isEqualTo(format(writer, "T2", 2));
+    }
+
+    @Test(timeout = 30_000)
+    public void testAbandonsThePartWhenAWriteFails() throws IOException {
+        Path outputDirectory = temporaryFolder.newFolder("out").toPath();
+        StockCsvWriter writer = new StockCsvWriter(outputDirectory);
+        List<FileChannel> channels = new ArrayList<>();
+        PrintStream originalError = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        int records = 0;
+        try (PartitionedResultSink sink = new PartitionedResultSink(outputDirectory, OutputFormat.CSV, 1L << 30, true) {
+            @Override
+            FileChannel openPart(Path part) throws IOException {
+                FileChannel channel = super.openPart(part);
+                channels.add(channel);
+                return channel;
+            }
+        }) {
+            sink.write(new File("NYSE/T0.csv"), history("T0", 0), predictions("T0"));
+            channels.get(0).close();
+            // fill the buffer until it is flushed to the closed channel, then write to the next part
+            while (channels.size() == 1) {
+                records++;
+                sink.write(new File("NYSE/T" + records + ".csv"), history("T" + records, 0),
+                        predictions("T" + records));
+            }
+            for (int i = 0; i < 2; i++) {
+                records++;
+                sink.write(new File("NYSE/T" + records + ".csv"), history("T" + records, 0),
+                        predictions("T" + records));
+            }
+        } finally {
+            System.setErr(originalError);
+        }
+
+        // the buffered records and the one whose append failed are lost, the following ones start a new part
+        assertThat(read(outputDirectory.resolve("NYSE-00000.csv"))).isEmpty();
+        List<String> expectedIndex = new ArrayList<>();
+        StringBuilder expectedPart = new StringBuilder();
+        for (int i = records - 2; i <= records; i++) {
+            String record = format(writer, "T" + i, 0);
+            expectedIndex.add("T" + i + ",NYSE-00001.csv," + expectedPart.length() + "," + record.length());
+            expectedPart.append(record);
+        }
+        assertThat(read(outputDirectory.resolve("NYSE-00001.csv"))).isEqualTo(expectedPart.toString());
+        assertThat(read(outputDirectory.resolve("NYSE.index.csv")).lines().collect(Collectors.toList()))
+                .isEqualTo(expectedIndex);
+    }
+
+    private static StockSeries history(String id, int seed) {
+        int[] epochDays = new int[10];
+        double[] prices = new double[10];
+        for (int i = 0; i < 10; i++) {
+            epochDays[i] = 19000 + seed * 100 + i;
+            prices[i] = 100 + seed + i / 4d;
+        }
+        return StockSeries.of(id, epochDays, prices);
+    }
+
+    private static StockSeries predictions(String id) {
+        return StockSeries.of(id, new int[]{20000, 20001, 20002}, new double[]{1.5, 2.5, 3.5});
+    }
+
+    private static String format(StockCsvWriter writer, String id, int seed) {
+        return StandardCharsets.UTF_8.decode(writer.format(history(id, seed), predictions(id))).toString();
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.com.stockpredictor.parsing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RowErrorCountsTest {
+    private final ByteArrayOutputStream errorContent = new ByteArrayOutputStream();
+    private final PrintStream originalError = System.err;
+
+    @Before
+    public void setUpStreams() {
+        System.setErr(new PrintStream(errorContent));
+    }
+
+    @After
+    public void restoreStreams() {
+        System.setErr(originalError);
+    }
+
+    @Test
+    public void testSampledLoggingLogsFirstRowsThenOneInInterval() {
+        RowErrorCounts errors = new RowErrorCounts(RowLogging.SAMPLED);
+        int rejected = RowErrorCounts.LOGGED_ROWS + 2 * RowErrorCounts.SAMPLING_INTERVAL;
+        for (int row = 1; row <= rejected; row++) {
+            errors.record(row, row % 2 == 0 ? RowError.BAD_PRICE : RowError.BAD_DATE);
+        }
+        errors.logSuppressed("TSLA.csv");
+
+        assertThat(errors.total()).isEqualTo(rejected);
+        assertThat(errors.count(RowError.BAD_PRICE)).isEqualTo(rejected / 2);
+        assertThat(errors.count(RowError.EMPTY_ID)).isZero();
+        String[] lines = errorContent.toString().split("\n");
+        assertThat(lines).hasSize(RowErrorCounts.LOGGED_ROWS + 3);
+        assertThat(lines[RowErrorCounts.LOGGED_ROWS]).isEqualTo(RowError.BAD_PRICE.describe(1010));
+        assertThat(lines[lines.length - 1]).isEqualTo(
+                "Rejected 2010 rows of file: TSLA.csv (bad price 1005, bad date 1005), 12 of them logged");
+    }
+
+    @Test
+    public void testNoLoggingOnlyCounts() {
+        RowErrorCounts errors = new RowErrorCounts(RowLogging.NONE);
+        errors.record(1, RowError.EMPTY_ID);
+        errors.logSuppressed("TSLA.csv");
+
+        assertThat(errors.count(RowError.EMPTY_ID)).isEqualTo(1);
+        assertThat(errorContent.toString()).isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.io.Resources;
+import org.com.stockpredictor.metrics.PipelineMetrics;
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SeriesCacheTest {
+    private final ByteArrayOutputStream errorContent = new ByteArrayOutputStream();
+    private final PrintStream originalError = System.err;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SeriesCache seriesCache;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setErr(new PrintStream(errorContent));
+        seriesCache = new SeriesCache(temporaryFolder.newFolder("cache").toPath());
+    }
+
+    @After
+    public void restoreStreams() {
+        System.setErr(originalError);
+    }
+
+    @Test
+    public void testWarmRunReadsCacheInsteadOfParsing() throws IOException, URISyntaxException {
+        File file = copyResource("TSLA-bad.csv");
+        StockCsvParser parser = new StockCsvParser(new Random(), InputMode.CHANNEL, seriesCache);
+
+        StockSeries coldSeries = parser.extractStockSeries(file);
+        assertThat(errorContent.toString()).contains("Unable to parse price at row: 1");
+        errorContent.reset();
+        StockSeries warmSeries = parser.extractStockSeries(file);
+
+        assertThat(warmSeries).isEqualTo(coldSeries);
+        assertThat(errorContent.toString()).isEmpty();
+    }
+
+    @Test
+    public void testWarmRunIsReportedToTheParseListener() throws IOException, URISyntaxException {
+        File file = copyResource("TSLA.csv");
+        PipelineMetrics metrics = new PipelineMetrics();
+        StockCsvParser parser = new StockCsvParser(new Random(), InputMode.CHANNEL, seriesCache, RowLogging.SAMPLED,
+                metrics);
+
+        StockSeries series = parser.extractStockSeries(file);
+        parser.extractStockSeries(file);
+
+        assertThat(metrics.getFilesParsed()).isEqualTo(2);
+        assertThat(metrics.getBytesParsed()).isEqualTo(2 * file.length());
+        assertThat(metrics.getRowsParsed()).isEqualTo(2L * series.size());
+    }
+
+    @Test
+    public void testCachedSeriesMatchesParsedSeries() throws IOException, URISyntaxException {
+        File file = copyResource("TSLA.csv");
+        StockSeries expected = new StockCsvParser(new Random(), InputMode.READER).extractStockSeries(file);
+
+        new StockCsvParser(new Random(), InputMode.MAPPED, seriesCache).extractStockSeries(file);
+
+        assertThat(seriesCache.read(file.toPath())).contains(expected);
+    }
+
+    @Test
+    public void testModifiedSourceInvalidatesEntry() throws IOException, URISyntaxException {
+        File file = copyResource("TSLA.csv");
+        StockCsvParser parser = new StockCsvParser(new Random(), InputMode.CHANNEL, seriesCache);
+        int initialSize = parser.extractStockSeries(file).size();
+
+        Files.writeString(file.toPath(), "TSLA,01-01-2024,250.5\n", StandardOpenOption.APPEND);
+
+        assertThat(seriesCache.read(file.toPath())).isEmpty();
+        assertThat(parser.extractStockSeries(file).size()).isEqualTo(initialSize + 1);
+        assertThat(seriesCache.read(file.toPath()).map(StockSeries::size)).contains(initialSize + 1);
+    }
+
+    @Test
+    public void testCorruptedEntryIsDetectedAndDeleted() throws IOException, URISyntaxException {
+        File file = copyResource("TSLA.csv");
+        new StockCsvParser(new Random(), InputMode.CHANNEL, seriesCache).extractStockSeries(file);
+        Path entry = seriesCache.entryPath(file.toPath());
+        byte[] content = Files.readAllBytes(entry);
+        content[content.length / 2] ^= 0x40;
+        Files.write(entry, content);
+
+        assertThat(seriesCache.read(file.toPath())).isEmpty();
+        assertThat(entry).doesNotExist();
+    }
+
+    private File copyResource(String name) throws IOException, URISyntaxException {
+        Path target = temporaryFolder.getRoot().toPath().resolve(name);
+        Files.copy(Path.of(Resources.getResource(name).toURI()), target, StandardCopyOption.REPLACE_EXISTING);
+        return target.toFile();
+    }
+}
@@ -0,0 +1,113 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.io.Resources;
+import org.com.stockpredictor.model.StockData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StockCsvByteParserTest {
+    private final ByteArrayOutputStream errorContent = new ByteArrayOutputStream();
+    private final PrintStream originalError = System.err;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUpStreams() {
+        System.setErr(new PrintStream(errorContent));
+    }
+
+    @After
+    public void restoreStreams() {
+        System.setErr(originalError);
+    }
+
+    @Test
+    public void testMatchesReaderOnGoodData() throws URISyntaxException {
+        assertSameAsReader(new File(Resources.getResource("TSLA.csv").toURI()));
+    }
+
+    @Test
+    public void testMatchesReaderOnBadData() throws URISyntaxException {
+        assertSameAsReader(new File(Resources.getResource("TSLA-bad.csv").toURI()));
+    }
+
+    @Test
+    public void testMatchesReaderOnEdgeCases() throws IOException {
+        File file = temporaryFolder.newFile("edge.csv");
+        Files.writeString(file.toPath(), String.join("\n",
+                "TSLA,01-01-2023,1.5\r\nTSLA,02-01-2023,-0\rTSLA,03-01-2023,+7.25",
+                "",
+                "TSLA,31-04-2023,1e3",
+                "TSLA,29-02-2023, 12.5",
+                "TSLA,29-02-2024,1.5d",
+                "TSLA,01-01-0000,1",
+                "TSLA,00-01-2023,1",
+                "TSLA,01-13-2023,1",
+                "TSLA,1-01-2023,1",
+                "TSLA,01-01-+12345,1",
+                "TSLA,01-01-2023,,5",
+                "TSLA,01-01-2023,5,,",
+                "TSLA,01-01-2023,,",
+                ",,,",
+                "AAPL,01-01-2023,.",
+                "AAPL,01-01-2023,123456789.123456789",
+                "AAPL,01-01-2023,0.1",
+                "AAPL,01-01-2023,NaN",
+                "MSFT,15-06-1999,0.30000000000000004",
+                "Äpfel,16-06-1999,0.5",
+                "TSLA,01-01-2023,42"), StandardCharsets.UTF_8);
+        assertSameAsReader(file);
+    }
+
+    @Test
+    public void testMappedSegmentsMatchReader() throws URISyntaxException, IOException {
+        File file = new File(Resources.getResource("TSLA.csv").toURI());
+        List<StockData> expected = new StockCsvParser(new Random(), InputMode.READER).extractAllStockData(file);
+        for (long segmentSize : new long[]{1, 7, 23, 64, 4096}) {
+            StockDataCollector collector = new StockDataCollector();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                MappedCsvReader.read(channel, new StockCsvByteParser(collector), segmentSize);
+            }
+            assertThat(collector.build()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testEpochDayMatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 1, 1); date.getYear() < 2101; date = date.plusDays(1)) {
+            assertThat(StockCsvByteParser.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()))
+                    .isEqualTo((int) date.toEpochDay());
+        }
+    }
+
+    private void assertSameAsReader(File file) {
+        List<StockData> expected = new StockCsvParser(new Random(), InputMode.READER).extractAllStockData(file);
+        String expectedErrors = errorContent.toString();
+        errorContent.reset();
+        for (InputMode inputMode : new InputMode[]{InputMode.CHANNEL, InputMode.MAPPED}) {
+            List<StockData> actual = new StockCsvParser(new Random(), inputMode).extractAllStockData(file);
+            assertThat(actual).isEqualTo(expected);
+            assertThat(errorContent.toString()).isEqualTo(expectedErrors);
+            errorContent.reset();
+        }
+    }
+}
@@ -4,19 +4,25 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.io.Resources;
 import org.com.stockpredictor.exception.InsufficientStockDataException;
 import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockSeries;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -26,6 +32,9 @@ public class StockCsvParserTest {
     private final ByteArrayOutputStream errorContent = new ByteArrayOutputStream();
     private final PrintStream originalError = System.err;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Before
     public void setUpStreams() {
         System.setErr(new PrintStream(errorContent));
@@ -77,4 +86,54 @@ public class StockCsvParserTest {
                 .contains("Unable to parse date time at row: 2")
                 .contains("Unable to parse stock ID at row: 3, due to being empty");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExtractBySeekingIsReproducibleAndConsecutive() throws URISyntaxException, InsufficientStockDataException {
+        File file = new File(Resources.getResource("TSLA.csv").toURI());
+        List<StockData> allStockData = new StockCsvParser(new Random()).extractAllStockData(file);
+        for (long seed = 0; seed < 20; seed++) {
+            List<StockData> first = new StockCsvParser(new Random(seed)).extractRandomConsecutiveStockDataBySeeking(file);
+            List<StockData> second = new StockCsvParser(new Random(seed)).extractRandomConsecutiveStockDataBySeeking(file);
+            assertThat(first).hasSize(10).isEqualTo(second);
+            int startIndex = allStockData.indexOf(first.get(0));
+            assertThat(allStockData.subList(startIndex, startIndex + 10)).isEqualTo(first);
+        }
+    }
+
+    @Test(expected = InsufficientStockDataException.class)
+    public void testExtractBySeekingFailsOnIncorrectData() throws URISyntaxException, InsufficientStockDataException {
+        File file = new File(Resources.getResource("TSLA-bad.csv").toURI());
+        new StockCsvParser(new Random(1)).extractRandomConsecutiveStockDataBySeeking(file);
+    }
+
+    @Test
+    public void testExtractSeriesMatchesStockData() throws URISyntaxException, InsufficientStockDataException {
+        File file = new File(Resources.getResource("TSLA.csv").toURI());
+        for (InputMode inputMode : InputMode.values()) {
+            List<StockData> expected = new StockCsvParser(new Random(5), inputMode).extractRandomConsecutiveStockData(file);
+            StockSeries actual = new StockCsvParser(new Random(5), inputMode).extractRandomConsecutiveStockSeries(file);
+            assertThat(actual.toStockDataList()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testFileOfExactlyTheWindowSizeHasNotEnoughData() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int day = 1; day <= StockCsvParser.REQUIRED_SIZE; day++) {
+            content.append(String.format("TSLA,%02d-01-2023,%d.5\n", day, day));
+        }
+        File file = temporaryFolder.newFile("TSLA.csv");
+        Files.writeString(file.toPath(), content);
+
+        for (InputMode inputMode : InputMode.values()) {
+            StockCsvParser parser = new StockCsvParser(new Random(1), inputMode);
+            assertThat(parser.extractStockSeries(file).size()).isEqualTo(StockCsvParser.REQUIRED_SIZE);
+            assertThatThrownBy(() -> parser.extractRandomConsecutiveStockData(file))
+                    .isInstanceOf(InsufficientStockDataException.class);
+            assertThatThrownBy(() -> parser.extractRandomConsecutiveStockSeries(file))
+                    .isInstanceOf(InsufficientStockDataException.class);
+            assertThatThrownBy(() -> parser.extractRandomConsecutiveStockDataBySeeking(file))
+                    .isInstanceOf(InsufficientStockDataException.class);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.collect.ImmutableList;
+import org.com.stockpredictor.model.StockData;
+import org.com.stockpredictor.model.StockDataUtils;
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StockCsvWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWritesSameContentAsCsvRows() throws IOException {
+        Random random = new Random(42);
+        ImmutableList.Builder<StockData> results = ImmutableList.builder();
+        LocalDate date = LocalDate.of(1999, 12, 30);
+        for (int i = 0; i < 20000; i++) {
+            double price;
+            switch (i % 4) {
+                case 0:
+                    price = random.nextInt(10_000_000) / 100d;
+                    break;
+                case 1:
+                    price = random.nextInt(1_000_000) / 10000d;
+                    break;
+                case 2:
+                    price = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 6);
+                    break;
+                default:
+                    price = (random.nextInt(2000) - 1000) / 8d;
+            }
+            results.add(StockData.of(i % 3 == 0 ? "TSLA" : "AAPL", date.plusDays(i), price));
+        }
+        for (double price : new double[]{0d, -0d, 1e7, 9999999.5, 1e-3, 0.1 + 0.2, Double.NaN, Double.MIN_VALUE}) {
+            results.add(StockData.of("EDGE", date, price));
+        }
+        results.add(StockData.of("EDGE", LocalDate.of(12345, 1, 1), 1d));
+        List<StockData> stockData = results.build();
+
+        new StockCsvWriter(temporaryFolder.getRoot().toPath()).write("out.csv", stockData);
+
+        String expected = stockData.stream().map(StockData::toCsvRow).collect(Collectors.joining());
+        assertThat(Files.readString(temporaryFolder.getRoot().toPath().resolve("out.csv"))).isEqualTo(expected);
+    }
+
+    @Test
+    public void testWritesSeriesOneAfterTheOther() throws IOException {
+        List<StockData> history = StockDataUtils.createStockDataList("TSLA", LocalDate.of(2023, 9, 3), 193.20, 191.84);
+        List<StockData> predictions = StockDataUtils.createStockDataList("TSLA", LocalDate.of(2023, 9, 5), 192.5);
+        StockCsvWriter writer = new StockCsvWriter(temporaryFolder.getRoot().toPath());
+
+        writer.write("first.csv", StockSeries.fromStockData(history), StockSeries.fromStockData(predictions));
+        writer.write("second.csv", StockSeries.fromStockData(predictions));
+
+        assertThat(Files.readString(temporaryFolder.getRoot().toPath().resolve("first.csv")))
+                .isEqualTo("TSLA,04-09-2023,193.2\nTSLA,05-09-2023,191.84\nTSLA,06-09-2023,192.5\n");
+        assertThat(Files.readString(temporaryFolder.getRoot().toPath().resolve("second.csv")))
+                .isEqualTo("TSLA,06-09-2023,192.5\n");
+    }
+
+    @Test
+    public void testAsyncSinkWritesEverySubmittedResult() throws IOException {
+        StockSeries history = StockSeries.fromStockData(
+                StockDataUtils.createStockDataList("TSLA", LocalDate.of(2023, 9, 3), 193.20, 191.84));
+        StockSeries predictions = StockSeries.fromStockData(
+                StockDataUtils.createStockDataList("TSLA", LocalDate.of(2023, 9, 5), 192.5));
+
+        try (ResultSink sink = new AsyncResultSink(new CsvFileSink(temporaryFolder.getRoot().toPath()), 4, 3)) {
+            for (int i = 0; i < 50; i++) {
+                sink.write(new File("input-" + i + ".csv"), history, predictions);
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(Files.readString(temporaryFolder.getRoot().toPath().resolve("input-" + i + ".csv")))
+                    .isEqualTo("TSLA,04-09-2023,193.2\nTSLA,05-09-2023,191.84\nTSLA,06-09-2023,192.5\n");
+        }
+    }
+}
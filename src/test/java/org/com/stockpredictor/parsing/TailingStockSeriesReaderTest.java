@@ -0,0 +1,69 @@
+package org.com.stockpredictor.parsing;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TailingStockSeriesReaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testParsesOnlyAppendedRows() throws IOException {
+        Path file = temporaryFolder.newFile("TSLA.csv").toPath();
+        Files.writeString(file, "TSLA,01-01-2023,1\r\nTSLA,02-01-2023,2\r\n");
+        TailingStockSeriesReader reader = new TailingStockSeriesReader(file);
+
+        assertThat(reader.readAppended()).isTrue();
+        assertThat(reader.getSeries().size()).isEqualTo(2);
+        assertThat(reader.getOffset()).isEqualTo(Files.size(file));
+        assertThat(reader.readAppended()).isFalse();
+
+        StockSeries firstSeries = reader.getSeries();
+        Files.writeString(file, "TSLA,03-01-2023,3\r\n", StandardOpenOption.APPEND);
+
+        assertThat(reader.readAppended()).isTrue();
+        assertThat(reader.getSeries().size()).isEqualTo(3);
+        assertThat(reader.getSeries().priceAt(2)).isEqualTo(3);
+        assertThat(firstSeries.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testIncompleteLineWaitsForItsTerminator() throws IOException {
+        Path file = temporaryFolder.newFile("TSLA.csv").toPath();
+        Files.writeString(file, "TSLA,01-01-2023,1\nTSLA,02-01-2023,2");
+        TailingStockSeriesReader reader = new TailingStockSeriesReader(file);
+
+        reader.readAppended();
+        assertThat(reader.getSeries().size()).isEqualTo(1);
+
+        Files.writeString(file, "5\n", StandardOpenOption.APPEND);
+        reader.readAppended();
+
+        assertThat(reader.getSeries().size()).isEqualTo(2);
+        assertThat(reader.getSeries().priceAt(1)).isEqualTo(25);
+    }
+
+    @Test
+    public void testTruncatedFileIsParsedAgain() throws IOException {
+        Path file = temporaryFolder.newFile("TSLA.csv").toPath();
+        Files.writeString(file, "TSLA,01-01-2023,1\nTSLA,02-01-2023,2\n");
+        TailingStockSeriesReader reader = new TailingStockSeriesReader(file);
+        reader.readAppended();
+
+        Files.writeString(file, "TSLA,05-01-2023,5\n");
+
+        assertThat(reader.readAppended()).isTrue();
+        assertThat(reader.getSeries().size()).isEqualTo(1);
+        assertThat(reader.getSeries().priceAt(0)).isEqualTo(5);
+    }
+}
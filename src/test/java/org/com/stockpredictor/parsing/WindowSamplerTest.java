@@ -0,0 +1,88 @@
+package org.com.stockpredictor.parsing;
+
+import com.google.common.io.Resources;
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class WindowSamplerTest {
+
+    private static final int ROWS = 15;
+    private static final int WINDOW_LENGTH = 10;
+
+    @Test
+    public void testDistributionMatchesNextIntOverMaterializedRows() {
+        int starts = ROWS - WINDOW_LENGTH;
+        int samples = 50_000;
+        int[] sampledStarts = new int[starts + 1];
+        int[] nextIntStarts = new int[starts + 1];
+        Random random = new Random(42);
+        for (int sample = 0; sample < samples; sample++) {
+            List<Integer> window = WindowSampler.sample(rows().iterator(), WINDOW_LENGTH, random).orElseThrow();
+            sampledStarts[window.get(0)]++;
+            nextIntStarts[random.nextInt(ROWS - WINDOW_LENGTH)]++;
+        }
+
+        assertThat(sampledStarts[starts]).isZero();
+        for (int start = 0; start < starts; start++) {
+            assertThat((double) sampledStarts[start] / samples).isCloseTo(1.0 / starts, within(0.01));
+            assertThat((double) sampledStarts[start] / samples)
+                    .isCloseTo((double) nextIntStarts[start] / samples, within(0.015));
+        }
+    }
+
+    @Test
+    public void testWindowIsConsecutiveAndReproducible() {
+        for (long seed = 0; seed < 50; seed++) {
+            List<Integer> first = WindowSampler.sample(rows().iterator(), WINDOW_LENGTH, new Random(seed)).orElseThrow();
+            List<Integer> second = WindowSampler.sample(rows().iterator(), WINDOW_LENGTH, new Random(seed)).orElseThrow();
+
+            assertThat(first).isEqualTo(second).hasSize(WINDOW_LENGTH);
+            assertThat(first).isEqualTo(IntStream.range(first.get(0), first.get(0) + WINDOW_LENGTH).boxed()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testNotEnoughRows() {
+        Optional<List<Integer>> window = WindowSampler.sample(
+                IntStream.range(0, WINDOW_LENGTH).boxed().iterator(), WINDOW_LENGTH, new Random());
+
+        assertThat(window).isEmpty();
+    }
+
+    @Test
+    public void testSampleFromStream() throws URISyntaxException, IOException, InsufficientStockDataException {
+        File file = new File(Resources.getResource("TSLA.csv").toURI());
+        StockSeries series = new StockCsvParser(new Random(), InputMode.CHANNEL).extractStockSeries(file);
+        for (long seed = 0; seed < 20; seed++) {
+            StockSeries window;
+            try (InputStream input = Files.newInputStream(file.toPath())) {
+                window = new StockCsvParser(new Random(seed)).extractRandomConsecutiveStockSeries(input, "TSLA");
+            }
+            int start = 0;
+            while (series.epochDayAt(start) != window.epochDayAt(0)) {
+                start++;
+            }
+            assertThat(window).isEqualTo(series.window(start, StockCsvParser.REQUIRED_SIZE));
+        }
+    }
+
+    private static List<Integer> rows() {
+        return IntStream.range(0, ROWS).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,99 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.ResultSink;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExchangeWatcherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<String> writtenFiles = new ArrayList<>();
+    private final List<StockSeries> writtenHistories = new ArrayList<>();
+
+    private final ResultSink resultSink = new ResultSink() {
+        @Override
+        public void write(File inputFile, StockSeries history, StockSeries predictions) {
+            writtenFiles.add(inputFile.getName());
+            writtenHistories.add(history);
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Test
+    public void testAppendedFileIsPredictedAgain() throws IOException, InterruptedException {
+        Path exchangesFolder = temporaryFolder.newFolder("exchanges").toPath();
+        Path exchange = Files.createDirectory(exchangesFolder.resolve("NYSE"));
+        Path tsla = writeSeries(exchange.resolve("TSLA.csv"), "TSLA", 1, 10);
+        writeSeries(exchange.resolve("MSFT.csv"), "MSFT", 1, 10);
+        writeSeries(exchange.resolve("SHORT.csv"), "SHORT", 1, 3);
+
+        try (ExchangeWatcher watcher = new ExchangeWatcher(exchangesFolder, 10, resultSink)) {
+            assertThat(watcher.start()).isEqualTo(2);
+            assertThat(writtenFiles).containsExactlyInAnyOrder("TSLA.csv", "MSFT.csv");
+            writtenFiles.clear();
+            writtenHistories.clear();
+
+            writeSeries(tsla, "TSLA", 11, 12);
+            pollUntilPredicted(watcher);
+
+            assertThat(writtenFiles).containsExactly("TSLA.csv");
+            StockSeries history = writtenHistories.get(0);
+            assertThat(history.priceAt(0)).isEqualTo(3);
+            assertThat(history.priceAt(history.size() - 1)).isEqualTo(12);
+        }
+    }
+
+    @Test
+    public void testNewExchangeIsWatched() throws IOException, InterruptedException {
+        Path exchangesFolder = temporaryFolder.newFolder("exchanges").toPath();
+
+        try (ExchangeWatcher watcher = new ExchangeWatcher(exchangesFolder, 10, resultSink)) {
+            assertThat(watcher.start()).isZero();
+
+            Path exchange = Files.createDirectory(exchangesFolder.resolve("LSE"));
+            pollUntil(watcher, () -> true);
+            writeSeries(exchange.resolve("A.csv"), "A", 1, 10);
+            pollUntilPredicted(watcher);
+
+            assertThat(writtenFiles).containsExactly("A.csv");
+        }
+    }
+
+    private void pollUntilPredicted(ExchangeWatcher watcher) throws InterruptedException {
+        pollUntil(watcher, () -> !writtenFiles.isEmpty());
+    }
+
+    private static void pollUntil(ExchangeWatcher watcher, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        do {
+            watcher.pollChanges(100, TimeUnit.MILLISECONDS);
+        } while (!condition.getAsBoolean() && System.nanoTime() < deadline);
+    }
+
+    private static Path writeSeries(Path file, String ticker, int firstDay, int lastDay) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int day = firstDay; day <= lastDay; day++) {
+            content.append(String.format("%s,%02d-01-2023,%d\n", ticker, day, day));
+        }
+        return Files.writeString(file, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,83 @@
+package org.com.stockpredictor.pipeline;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class FileDiscoveryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path exchangesFolder;
+
+    @Before
+    public void setUp() throws IOException {
+        exchangesFolder = temporaryFolder.newFolder("exchanges").toPath();
+        for (String exchange : List.of("NYSE", "LSE", "NASDAQ")) {
+            Path exchangeDirectory = Files.createDirectory(exchangesFolder.resolve(exchange));
+            for (int i = 0; i < 40; i++) {
+                Files.createFile(exchangeDirectory.resolve("T" + i + ".csv"));
+            }
+            Files.createFile(exchangeDirectory.resolve("notes.txt"));
+        }
+        Files.createFile(exchangesFolder.resolve("top-level.csv"));
+    }
+
+    @Test
+    public void testFindsCsvFilesWithinLimitPerExchange() {
+        List<File> files = discover(25, Shard.ALL);
+
+        assertThat(files).hasSize(75).doesNotHaveDuplicates();
+        assertThat(files).allMatch(file -> file.getName().endsWith(".csv"));
+        Map<String, Long> filesPerExchange = files.stream()
+                .collect(Collectors.groupingBy(file -> file.getParentFile().getName(), Collectors.counting()));
+        assertThat(filesPerExchange).containsOnly(entry("NYSE", 25L), entry("LSE", 25L), entry("NASDAQ", 25L));
+    }
+
+    @Test
+    public void testShardsSplitTheRunWithoutOverlap() {
+        Set<File> unsharded = new HashSet<>(discover(25, Shard.ALL));
+        List<File> sharded = new ArrayList<>();
+        for (int index = 0; index < 3; index++) {
+            List<File> shardFiles = discover(25, new Shard(index, 3));
+            assertThat(shardFiles).isNotEmpty();
+            sharded.addAll(shardFiles);
+        }
+
+        assertThat(sharded).doesNotHaveDuplicates();
+        assertThat(new HashSet<>(sharded)).isEqualTo(unsharded);
+    }
+
+    @Test
+    public void testParseShard() {
+        assertThat(Shard.parse("2/5")).isEqualTo(new Shard(2, 5));
+        assertThatThrownBy(() -> Shard.parse("5/5")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Shard.parse("1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<File> discover(int maxFilesPerExchange, Shard shard) {
+        List<File> files = new ArrayList<>();
+        try (FileDiscovery discovery = new FileDiscovery(exchangesFolder, maxFilesPerExchange, shard, 2)) {
+            discovery.forEach(files::add);
+            assertThat(discovery.getDiscoveredCount()).isEqualTo(files.size());
+        }
+        return files;
+    }
+}
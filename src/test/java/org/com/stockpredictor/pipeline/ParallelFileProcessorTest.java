@@ -0,0 +1,72 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.exception.InsufficientStockDataException;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelFileProcessorTest {
+
+    @Test
+    public void testProcessesAllFilesAndIsolatesFailures() throws InterruptedException {
+        List<File> files = IntStream.range(0, 50)
+                .mapToObj(i -> new File("file-" + i + ".csv"))
+                .collect(Collectors.toList());
+        Set<String> processedNames = ConcurrentHashMap.newKeySet();
+        int succeeded;
+        try (ParallelFileProcessor processor = new ParallelFileProcessor(4, 3)) {
+            succeeded = processor.process(files, file -> {
+                if (file.getName().endsWith("7.csv")) {
+                    throw new InsufficientStockDataException("Could not find enough stock data");
+                }
+                processedNames.add(file.getName());
+            });
+        }
+        assertThat(succeeded).isEqualTo(45);
+        assertThat(processedNames).hasSize(45).doesNotContain("file-7.csv", "file-17.csv");
+    }
+
+    @Test(timeout = 30_000)
+    public void testGivesBackThePermitOfARejectedFile() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        try (ParallelFileProcessor processor = new ParallelFileProcessor(executor, 1)) {
+            assertThatThrownBy(() -> processor.process(List.of(new File("file-0.csv")), file -> { }))
+                    .isInstanceOf(RejectedExecutionException.class);
+            // waiting for completion takes every permit back
+            assertThat(processor.process(List.of(), file -> { })).isZero();
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void testCloseRestoresTheInterruptStatus() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch never = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread.currentThread().interrupt();
+        new ParallelFileProcessor(executor, 1).close();
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+}
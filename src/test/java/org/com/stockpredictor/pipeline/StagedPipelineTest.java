@@ -0,0 +1,163 @@
+package org.com.stockpredictor.pipeline;
+
+import org.com.stockpredictor.dataset.DatasetGenerator;
+import org.com.stockpredictor.dataset.DatasetSpec;
+import org.com.stockpredictor.metrics.PipelineMetrics;
+import org.com.stockpredictor.metrics.Stage;
+import org.com.stockpredictor.model.StockSeries;
+import org.com.stockpredictor.parsing.InputMode;
+import org.com.stockpredictor.parsing.ResultSink;
+import org.com.stockpredictor.parsing.RowLogging;
+import org.com.stockpredictor.parsing.StockCsvParser;
+import org.com.stockpredictor.prediction.LinearRegressionStrategy;
+import org.com.stockpredictor.prediction.PredictionStrategy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StagedPipelineTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<File, StockSeries[]> results = new ConcurrentHashMap<>();
+
+    private final ResultSink resultSink = new ResultSink() {
+        @Override
+        public void write(File inputFile, StockSeries history, StockSeries predictions) {
+            results.put(inputFile, new StockSeries[]{history, predictions});
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Test
+    public void testProcessesEveryFileLikeTheInlinePipeline() throws Exception {
+        Path exchangesFolder = temporaryFolder.newFolder("exchanges").toPath();
+        List<File> files = new ArrayList<>();
+        for (Path file : new DatasetGenerator(DatasetSpec.builder()
+                .outputFolder(exchangesFolder)
+                .exchanges(3)
+                .filesPerExchange(40)
+                .rowsPerFile(50)
+                .malformedRate(0.05)
+                .build()).generate()) {
+            files.add(file.toFile());
+        }
+        File shortFile = exchangesFolder.resolve("EX0/SHORT.csv").toFile();
+        Files.writeString(shortFile.toPath(), "SHORT,01-01-2023,1.0\n");
+        files.add(shortFile);
+        files.add(exchangesFolder.resolve("EX0/MISSING.csv").toFile());
+
+        PipelineMetrics metrics = new PipelineMetrics();
+        PredictionStrategy strategy = new LinearRegressionStrategy();
+        Function<File, StockCsvParser> parsers = file -> new StockCsvParser(
+                new Random(file.getPath().hashCode()), InputMode.CHANNEL, null, RowLogging.NONE, metrics);
+        StageSettings settings = StageSettings.builder()
+                .readThreads(2)
+                .parseThreads(3)
+                .predictThreads(2)
+                .writeThreads(2)
+                .queueCapacity(2)
+                .batchSize(5)
+                .build();
+
+        int written = new StagedPipeline(settings, parsers, strategy, resultSink, metrics).process(files);
+
+        assertThat(written).isEqualTo(120);
+        assertThat(results).hasSize(120).doesNotContainKeys(shortFile);
+        for (File file : files.subList(0, 120)) {
+            StockSeries expectedWindow = parsers.apply(file).extractRandomConsecutiveStockSeries(file);
+            assertThat(results.get(file)[0]).isEqualTo(expectedWindow);
+            assertThat(results.get(file)[0].getPrices()).hasSize(StockCsvParser.REQUIRED_SIZE);
+            assertThat(results.get(file)[1]).isEqualTo(strategy.predict(expectedWindow));
+        }
+        assertThat(metrics.getLatencies(Stage.READ).getCount()).isEqualTo(121);
+        assertThat(metrics.getLatencies(Stage.PARSE).getCount()).isEqualTo(120);
+        assertThat(metrics.getLatencies(Stage.WRITE).getCount()).isEqualTo(120);
+        assertThat(metrics.getLatencies(Stage.PREDICT).getCount()).isBetween(24L, 120L);
+        assertThat(metrics.getQueueDepths()).containsOnlyKeys("READ", "PARSE", "PREDICT", "WRITE");
+        assertThat(metrics.getSummary()).contains("read queue: depth", "write queue: depth");
+    }
+
+    @Test
+    public void testEmptyInput() throws InterruptedException {
+        StagedPipeline pipeline = new StagedPipeline(StageSettings.builder().build(),
+                file -> new StockCsvParser(new Random()), new LinearRegressionStrategy(), resultSink,
+                new PipelineMetrics());
+
+        assertThat(pipeline.process(List.of())).isZero();
+        assertThat(results).isEmpty();
+    }
+
+    @Test(timeout = 30_000)
+    public void testFinishesWhenAllWorkersOfAStageAreKilled() throws Exception {
+        Path exchangesFolder = temporaryFolder.newFolder("exchanges").toPath();
+        List<File> files = new ArrayList<>();
+        for (Path file : new DatasetGenerator(DatasetSpec.builder()
+                .outputFolder(exchangesFolder)
+                .exchanges(1)
+                .filesPerExchange(50)
+                .rowsPerFile(20)
+                .build()).generate()) {
+            files.add(file.toFile());
+        }
+        PredictionStrategy failingStrategy = new LinearRegressionStrategy() {
+            @Override
+            public void predictBatch(List<StockSeries> windows, double[] predictions) {
+                throw new AssertionError("killed");
+            }
+        };
+        StageSettings settings = StageSettings.builder()
+                .predictThreads(1)
+                .queueCapacity(2)
+                .batchSize(1)
+                .build();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, error) -> { });
+        try {
+            int written = new StagedPipeline(settings, file -> new StockCsvParser(new Random()), failingStrategy,
+                    resultSink, new PipelineMetrics()).process(files);
+
+            assertThat(written).isZero();
+            assertThat(results).isEmpty();
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void testStopsTheWorkersWhenTheFilesCannotBeIterated() throws InterruptedException {
+        StagedPipeline pipeline = new StagedPipeline(StageSettings.builder().build(),
+                file -> new StockCsvParser(new Random()), new LinearRegressionStrategy(), resultSink,
+                new PipelineMetrics());
+        Iterable<File> failingFiles = () -> {
+            throw new IllegalStateException("listing failed");
+        };
+
+        assertThatThrownBy(() -> pipeline.process(failingFiles)).isInstanceOf(IllegalStateException.class);
+        while (stageThreadsAlive()) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean stageThreadsAlive() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().startsWith("stage-") && thread.isAlive());
+    }
+}
@@ -0,0 +1,116 @@
+package org.com.stockpredictor.prediction;
+
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class LinearRegressionStrategyTest {
+
+    private final LinearRegressionStrategy strategy = new LinearRegressionStrategy();
+
+    @Test
+    public void testExtrapolatesLine() {
+        double[] predictions = new double[4];
+
+        strategy.predict(new double[]{0d, 3d, 5d, 7d, 9d, 11d}, 2, 4, predictions, 1);
+
+        assertThat(predictions[0]).isZero();
+        assertThat(predictions[1]).isCloseTo(13d, within(1e-12));
+        assertThat(predictions[2]).isCloseTo(15d, within(1e-12));
+        assertThat(predictions[3]).isCloseTo(17d, within(1e-12));
+    }
+
+    @Test
+    public void testFitsLeastSquaresLine() {
+        double[] predictions = new double[3];
+
+        // the least-squares line through (0, 1), (1, 3), (2, 2) is y = 1.5 + 0.5 x
+        strategy.predict(new double[]{1d, 3d, 2d}, 0, 3, predictions, 0);
+
+        assertThat(predictions).containsExactly(new double[]{3d, 3.5d, 4d}, within(1e-12));
+    }
+
+    @Test
+    public void testSinglePricePredictsThatPrice() {
+        double[] predictions = new double[3];
+
+        strategy.predict(new double[]{42d}, 0, 1, predictions, 0);
+
+        assertThat(predictions).containsExactly(42d, 42d, 42d);
+    }
+
+    @Test
+    public void testBatchMatchesSingleWindows() {
+        Random random = new Random(42);
+        double[] prices = new double[700];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + random.nextInt(10000) / 100d;
+        }
+        int[] windowOffsets = new int[600];
+        List<StockSeries> windows = new ArrayList<>();
+        StockSeries series = StockSeries.of("Mock", new int[prices.length], prices);
+        for (int i = 0; i < windowOffsets.length; i++) {
+            windowOffsets[i] = random.nextInt(prices.length - 10);
+            windows.add(series.window(windowOffsets[i], 10));
+        }
+        double[] expected = new double[windowOffsets.length * 3];
+        for (int i = 0; i < windowOffsets.length; i++) {
+            strategy.predict(prices, windowOffsets[i], 10, expected, i * 3);
+        }
+
+        double[] offsetsBatch = new double[expected.length];
+        strategy.predictBatch(prices, windowOffsets, 10, offsetsBatch);
+        double[] seriesBatch = new double[expected.length];
+        strategy.predictBatch(windows, seriesBatch);
+
+        assertThat(offsetsBatch).containsExactly(expected);
+        assertThat(seriesBatch).containsExactly(expected);
+    }
+
+    @Test
+    public void testBatchOfWindowsOfDifferentLengths() {
+        StockSeries series = StockSeries.of("Mock", new int[5], new double[]{1d, 2d, 4d, 8d, 16d});
+        double[] predictions = new double[6];
+
+        strategy.predictBatch(List.of(series.window(0, 3), series.window(1, 4)), predictions);
+
+        double[] expected = new double[6];
+        strategy.predict(series.getPrices(), 0, 3, expected, 0);
+        strategy.predict(series.getPrices(), 1, 4, expected, 3);
+        assertThat(predictions).containsExactly(expected);
+    }
+
+    @Test
+    public void testBuffersMatchArrays() {
+        double[] prices = {9d, 1d, 3d, 2d, 8d, 5d, 7d};
+        double[] expected = new double[3];
+        strategy.predict(prices, 2, 4, expected, 0);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(prices.length * Double.BYTES);
+        direct.asDoubleBuffer().put(prices);
+        for (DoubleBuffer buffer : List.of(DoubleBuffer.wrap(prices, 1, 6).slice(), direct.asDoubleBuffer().slice(1, 6))) {
+            double[] predictions = new double[3];
+            strategy.predict(buffer, 1, 4, predictions, 0);
+            assertThat(predictions).containsExactly(expected);
+        }
+    }
+
+    @Test
+    public void testStrategiesAreFoundByName() {
+        assertThat(PredictionStrategies.forName("linear-regression")).isInstanceOf(LinearRegressionStrategy.class);
+        assertThat(PredictionStrategies.getDefault()).isInstanceOf(SecondHighestStrategy.class)
+                .isSameAs(PredictionStrategies.forName("second-highest"));
+        assertThatThrownBy(() -> PredictionStrategies.forName("unknown"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("second-highest");
+    }
+}
@@ -0,0 +1,32 @@
+package org.com.stockpredictor.prediction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlidingSecondHighestTest {
+
+    @Test
+    public void testMatchesPredictFirstPriceForEveryWindow() {
+        Random random = new Random(42);
+        for (int windowLength = 1; windowLength <= 12; windowLength++) {
+            double[] prices = new double[200];
+            for (int i = 0; i < prices.length; i++) {
+                // few distinct values, some negative, so that duplicates and all-same windows occur
+                prices[i] = random.nextInt(4) - 1 + (i % 50 < 20 ? 0 : 0.5);
+            }
+            SlidingSecondHighest window = new SlidingSecondHighest(windowLength);
+            for (int i = 0; i < prices.length; i++) {
+                window.add(prices[i]);
+                if (window.size() == windowLength) {
+                    int start = i - windowLength + 1;
+                    assertThat(window.firstPredictedPrice())
+                            .isEqualTo(StockPredictor.predictFirstPrice(prices, start, windowLength));
+                    window.removeOldest();
+                }
+            }
+        }
+    }
+}
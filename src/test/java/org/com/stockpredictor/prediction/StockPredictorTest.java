@@ -2,11 +2,16 @@ package org.com.stockpredictor.prediction;
 
 import org.com.stockpredictor.model.StockData;
 import org.com.stockpredictor.model.StockDataUtils;
+import org.com.stockpredictor.model.StockSeries;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -22,7 +27,10 @@ public class StockPredictorTest {
                 arguments(new double[]{1d, 2d}, 1d),
                 arguments(new double[]{3d, 2d}, 2d),
                 arguments(new double[]{3d, 2d, 6d, 100d, -1d, 231d, 42d, 199d}, 199d),
-                arguments(new double[]{3d, 2d, 1d}, 2d));
+                arguments(new double[]{3d, 2d, 1d}, 2d),
+                arguments(new double[]{7d, 7d, 5d, 7d}, 5d),
+                arguments(new double[]{Double.NaN, Double.NaN}, Double.NaN),
+                arguments(new double[]{-1d, -2d}, Double.MIN_VALUE));
     }
 
     static Stream<Arguments> pricesWithExpectedForSecond() {
@@ -48,6 +56,51 @@ public class StockPredictorTest {
         assertThat(firstPrice).isEqualTo(expected);
     }
 
+    @ParameterizedTest
+    @MethodSource("pricesWithExpectedValueForFirst")
+    public void testPredictFirstPriceOfArrayRangeCorrect(double[] prices, double expected) {
+        double[] padded = new double[prices.length + 4];
+        Arrays.fill(padded, 1000d);
+        System.arraycopy(prices, 0, padded, 2, prices.length);
+
+        double firstPrice = StockPredictor.predictFirstPrice(padded, 2, prices.length);
+        assertThat(firstPrice).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @MethodSource("pricesWithExpectedValueForFirst")
+    public void testPredictFromBuffersLikeArrays(double[] prices, double expected) {
+        double[] padded = new double[prices.length + 4];
+        Arrays.fill(padded, 1000d);
+        System.arraycopy(prices, 0, padded, 2, prices.length);
+        ByteBuffer direct = ByteBuffer.allocateDirect(padded.length * Double.BYTES);
+        direct.asDoubleBuffer().put(padded);
+
+        for (DoubleBuffer buffer : List.of(DoubleBuffer.wrap(padded, 1, padded.length - 1).slice(),
+                direct.asDoubleBuffer().slice(1, padded.length - 1))) {
+            double[] predictions = new double[3];
+            StockPredictor.predict(buffer, 1, prices.length, predictions, 0);
+            assertThat(predictions[0]).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testPredictBatchMatchesSingleWindows() {
+        double[] prices = {1d, 5d, 3d, 4d, 2d, 8d, 6d, 7d};
+        double[] batchPredictions = new double[9];
+        StockPredictor.predictBatch(prices, new int[]{0, 2, 4}, 4, batchPredictions);
+
+        for (int window = 0; window < 3; window++) {
+            StockSeries series = StockSeries.of("Mock", new int[]{1, 2, 3, 4},
+                    Arrays.copyOfRange(prices, window * 2, window * 2 + 4));
+            StockSeries predictions = StockPredictor.predict(series);
+            assertThat(Arrays.copyOfRange(batchPredictions, window * 3, window * 3 + 3))
+                    .containsExactly(predictions.priceAt(0), predictions.priceAt(1), predictions.priceAt(2));
+            assertThat(predictions.epochDayAt(0)).isEqualTo(5);
+        }
+        assertThat(Arrays.copyOfRange(batchPredictions, 3, 6)).containsExactly(4d, 6d, 4.5d);
+    }
+
     @ParameterizedTest
     @MethodSource("pricesWithExpectedForSecond")
     public void testPredictSecondPriceCorrect(double lastPrice, double firstPrice, double expected) {
@@ -0,0 +1,125 @@
+package org.com.stockpredictor.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PredictionServiceTest {
+    private final ByteArrayOutputStream errorContent = new ByteArrayOutputStream();
+    private final PrintStream originalError = System.err;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path exchangesFolder;
+    private SeriesRepository seriesRepository;
+    private PredictionService predictionService;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setErr(new PrintStream(errorContent));
+        exchangesFolder = temporaryFolder.newFolder("exchanges").toPath();
+        Files.createDirectory(exchangesFolder.resolve("NYSE"));
+        writeSeries("NYSE", "TSLA", 12);
+        writeSeries("NYSE", "SHORT", 5);
+        seriesRepository = new SeriesRepository(exchangesFolder, 10, 1_000);
+        seriesRepository.preload();
+        predictionService = new PredictionService(seriesRepository);
+    }
+
+    @After
+    public void restoreStreams() {
+        System.setErr(originalError);
+    }
+
+    @Test
+    public void testPredictFromLatestWindow() {
+        PredictionResponse response = predictionService.predict(new PredictionRequest("NYSE", "TSLA", null));
+
+        assertThat(response.getHistory()).hasSize(10);
+        assertThat(response.getHistory().get(0)).isEqualTo(new PricePoint("03-01-2023", 3));
+        assertThat(response.getPredictions()).extracting(PricePoint::getDate)
+                .containsExactly("13-01-2023", "14-01-2023", "15-01-2023");
+        assertThat(response.getPredictions().get(0).getPrice()).isEqualTo(11);
+    }
+
+    @Test
+    public void testPredictFromGivenWindow() {
+        PredictionResponse response = predictionService.predict(new PredictionRequest("NYSE", "TSLA", 0));
+
+        assertThat(response.getHistory().get(0)).isEqualTo(new PricePoint("01-01-2023", 1));
+        assertThat(response.getPredictions().get(0)).isEqualTo(new PricePoint("11-01-2023", 9));
+    }
+
+    @Test
+    public void testUnknownTickerIsNotFound() {
+        assertThat(statusOf(new PredictionRequest("NYSE", "AAPL", null))).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(statusOf(new PredictionRequest("..", "TSLA", null))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void testInvalidWindowIsBadRequest() {
+        assertThat(statusOf(new PredictionRequest("NYSE", "TSLA", 3))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(new PredictionRequest("NYSE", "SHORT", null))).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testBatchKeepsOrderAndIsolatesFailures() {
+        List<PredictionResponse> responses = predictionService.predictBatch(List.of(
+                new PredictionRequest("NYSE", "TSLA", 2),
+                new PredictionRequest("NYSE", "AAPL", null),
+                new PredictionRequest("NYSE", "TSLA", 0)));
+
+        assertThat(responses).hasSize(3);
+        assertThat(responses.get(0).getPredictions().get(0).getPrice()).isEqualTo(11);
+        assertThat(responses.get(1).getError()).isEqualTo("Unknown ticker AAPL on exchange NYSE");
+        assertThat(responses.get(1).getPredictions()).isEmpty();
+        assertThat(responses.get(2).getPredictions().get(0).getPrice()).isEqualTo(9);
+    }
+
+    @Test
+    public void testChangedFileIsReloaded() throws IOException {
+        assertThat(predictionService.predict(new PredictionRequest("NYSE", "TSLA", null))
+                .getPredictions().get(0).getPrice()).isEqualTo(11);
+
+        Path file = exchangesFolder.resolve("NYSE").resolve("TSLA.csv");
+        Files.writeString(file, "TSLA,13-01-2023,100\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        PredictionResponse response = predictionService.predict(new PredictionRequest("NYSE", "TSLA", null));
+        assertThat(response.getHistory().get(9)).isEqualTo(new PricePoint("13-01-2023", 100));
+    }
+
+    private HttpStatus statusOf(PredictionRequest request) {
+        try {
+            predictionService.predict(request);
+        } catch (ResponseStatusException e) {
+            return HttpStatus.valueOf(e.getStatusCode().value());
+        }
+        return HttpStatus.OK;
+    }
+
+    private void writeSeries(String exchange, String ticker, int days) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int day = 1; day <= days; day++) {
+            content.append(String.format("%s,%02d-01-2023,%d\n", ticker, day, day));
+        }
+        Files.writeString(exchangesFolder.resolve(exchange).resolve(ticker + ".csv"), content);
+    }
+}